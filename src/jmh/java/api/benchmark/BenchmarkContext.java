@@ -0,0 +1,66 @@
+package api.benchmark;
+
+import api.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without a web server against a fresh in-memory H2 database for benchmarks
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+final class BenchmarkContext {
+
+    // number of rows inserted per JDBC batch when seeding
+    private static final int SEED_BATCH_SIZE = 10000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param database - name of the in-memory database, so each benchmark gets its own
+     * @return the started application context
+     */
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                     // benchmarks call the service themselves, nothing should change the Tasks in the background
+                     "--usertasker.task.reconcile-enabled=false",
+                     "--usertasker.task.due-enabled=false",
+                     "--logging.level.root=WARN",
+                     "--logging.level.TaskService=WARN",
+                     "--logging.level.UserService=WARN");
+    }
+
+    /**
+     * Inserts Tasks with ids 1 to count for User 1 directly through JDBC. Every second Task is already due
+     *
+     * @param context - the application context
+     * @param count - the number of Tasks to insert
+     */
+    static void seedTasks(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp past = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        Timestamp future = Timestamp.valueOf(LocalDateTime.now().plusYears(1));
+
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int id = 1; id <= count; id++) {
+            boolean due = id % 2 == 0;
+            batch.add(new Object[] { id, 1, "task " + id, "benchmark task", due ? past : future, "PENDING" });
+            if (batch.size() == SEED_BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO task (id, user_id, name, description, due_time, status) " +
+                                         "VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package api.benchmark;
+
+import api.service.TaskServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Task status updates against an embedded H2 database holding 10k, 100k and 1M Tasks.
+ * checkTasks updates a fixed number of due Tasks, so should not depend on the size of the table,
+ * reconcileStatuses goes through the whole table.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckTasksBenchmark {
+
+    // number of Tasks that become due for each checkTasks call
+    private static final int DUE_TASKS = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskServiceImpl taskService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Integer> dueIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("check_tasks_" + rows);
+        BenchmarkContext.seedTasks(context, rows);
+        taskService = context.getBean(TaskServiceImpl.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // due Tasks have even ids, spread them across the table
+        dueIds = new ArrayList<>(DUE_TASKS);
+        int step = Math.max(2, (rows / DUE_TASKS) & ~1);
+        for (int id = step; id <= rows && dueIds.size() < DUE_TASKS; id += step) {
+            dueIds.add(id);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStatuses() {
+        // make every Task PENDING again so each invocation has the same work to do
+        jdbcTemplate.update("UPDATE task SET status = 'PENDING' WHERE status <> 'PENDING'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void checkTasks() {
+        taskService.checkTasks(dueIds);
+    }
+
+    @Benchmark
+    public Object reconcileStatuses() {
+        return taskService.reconcileStatuses();
+    }
+}
@@ -0,0 +1,96 @@
+package api.benchmark;
+
+import api.service.IdBitmap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up ids in an {@link IdBitmap} holding 1M and 10M sequential ids, against a concurrent hash set
+ * of the same ids (as the userExists cache held them). Lookups are of random ids that exist (hit) or are beyond the
+ * last id (miss). The heap used by each is printed at setup, e.g. 10M ids take about 1.4MB as a bitmap and over
+ * 500MB as a hash set.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IdBitmapBenchmark {
+
+    // number of ids looked up in turn, a power of 2
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000000", "10000000"})
+    public int ids;
+
+    private IdBitmap bitmap;
+    private Set<Integer> hashSet;
+    private int[] hits;
+    private int[] misses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Runtime runtime = Runtime.getRuntime();
+        bitmap = new IdBitmap();
+        for (int id = 1; id <= ids; id++) {
+            bitmap.add(id);
+        }
+
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        hashSet = ConcurrentHashMap.newKeySet(ids);
+        for (int id = 1; id <= ids; id++) {
+            hashSet.add(id);
+        }
+        System.gc();
+        long hashSetBytes = runtime.totalMemory() - runtime.freeMemory() - before;
+        System.out.printf("%n%d ids: bitmap %d bytes, hash set ~%d bytes%n", ids, bitmap.sizeInBytes(), hashSetBytes);
+
+        Random random = new Random(42);
+        hits = new int[LOOKUPS];
+        misses = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            hits[i] = 1 + random.nextInt(ids);
+            misses[i] = ids + 1 + random.nextInt(ids);
+        }
+    }
+
+    @Benchmark
+    public boolean bitmapHit() {
+        return bitmap.contains(hits[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public boolean bitmapMiss() {
+        return bitmap.contains(misses[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public boolean hashSetHit() {
+        return hashSet.contains(hits[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public boolean hashSetMiss() {
+        return hashSet.contains(misses[next++ & (LOOKUPS - 1)]);
+    }
+}
@@ -0,0 +1,86 @@
+package api.benchmark;
+
+import api.entity.Task;
+import api.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Task} and {@link User} serialization. The legacy* benchmarks build an ObjectMapper per call as
+ * toString() used to, the shared* benchmarks use one mapper as Spring's message converters do.
+ * Run with -prof gc (e.g. -Djmh.args="SerializationBenchmark -prof gc -rf json -rff target/jmh-result.json") to
+ * compare allocation per call.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+
+    private Task task;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        task = new Task();
+        task.setUserId(1);
+        task.setName("name");
+        task.setDescription("description");
+        task.setDueTime(Task.parseDateTime("2026-10-17 12:30:00"));
+        task.setStatus(Task.Status.PENDING);
+
+        user = new User();
+        user.setUsername("username");
+        user.setFirstName("first");
+        user.setLastName("last");
+    }
+
+    @Benchmark
+    public String taskToString() {
+        return task.toString();
+    }
+
+    @Benchmark
+    public String userToString() {
+        return user.toString();
+    }
+
+    @Benchmark
+    public String legacyTaskJson() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(task);
+    }
+
+    @Benchmark
+    public String legacyUserJson() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(user);
+    }
+
+    @Benchmark
+    public String sharedTaskJson() throws JsonProcessingException {
+        return sharedMapper.writeValueAsString(task);
+    }
+
+    @Benchmark
+    public String sharedUserJson() throws JsonProcessingException {
+        return sharedMapper.writeValueAsString(user);
+    }
+}
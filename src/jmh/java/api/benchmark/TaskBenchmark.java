@@ -0,0 +1,70 @@
+package api.benchmark;
+
+import api.entity.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the date_time validation done by addTask and {@link Task#updateWith(Task)}
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskBenchmark {
+
+    private static final String DATE_TIME = "2026-10-17 12:30:00";
+
+    private Task task;
+    private Task newTask;
+
+    @Setup
+    public void setUp() {
+        task = new Task();
+        task.setUserId(1);
+        task.setName("name");
+        task.setDescription("description");
+        task.setDueTime(Task.parseDateTime(DATE_TIME));
+        task.setStatus(Task.Status.PENDING);
+
+        newTask = new Task();
+        newTask.setName("new name");
+        newTask.setDescription("new description");
+        newTask.setDueTime(Task.parseDateTime("2027-01-01 00:00:00"));
+    }
+
+    // how addTask parses date_time, with the shared formatter
+    @Benchmark
+    public LocalDateTime parseDateTime() {
+        return Task.parseDateTime(DATE_TIME);
+    }
+
+    // how addTask used to parse date_time, building a formatter for every call
+    @Benchmark
+    public LocalDateTime parseDateTimeNewFormatter() {
+        return LocalDateTime.parse(DATE_TIME, DateTimeFormatter.ofPattern(Task.DATE_TIME_PATTERN));
+    }
+
+    @Benchmark
+    public Task updateWith() {
+        task.updateWith(newTask);
+        return task;
+    }
+}
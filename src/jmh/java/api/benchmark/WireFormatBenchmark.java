@@ -0,0 +1,101 @@
+package api.benchmark;
+
+import api.entity.Task;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks writing and reading a page of 1000 {@link Task}s as JSON, Smile and CBOR, with and without gzip as
+ * applied by server.compression. The bytes on the wire for each format are printed at setup. Run with -prof gc to
+ * compare allocation per page.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+
+    // number of Tasks in a page, the maximum limit of GET /api/user/{user_id}/task
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<Task> tasks;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "smile":
+                mapper = new ObjectMapper(new SmileFactory());
+                break;
+            case "cbor":
+                mapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+
+        tasks = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime dueTime = LocalDateTime.of(2026, 10, 17, 12, 0);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Task task = new Task();
+            task.setUserId(1);
+            task.setName("Task " + i);
+            task.setDescription("Description of task " + i);
+            task.setDueTime(dueTime.plusMinutes(i));
+            task.setStatus(i % 2 == 0 ? Task.Status.PENDING : Task.Status.DONE);
+            tasks.add(task);
+        }
+
+        serialized = write();
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped%n", format, serialized.length, writeGzipped().length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] writeGzipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(serialized != null ? serialized.length : 8192);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, tasks);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Task> read() throws IOException {
+        return mapper.readValue(serialized, new TypeReference<List<Task>>() {});
+    }
+}
@@ -0,0 +1,54 @@
+package api.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records latencies (in nanoseconds) for one endpoint and reports percentiles of them
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private final AtomicLong errors = new AtomicLong();
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    String getName() { return name; }
+
+    synchronized void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    synchronized int getCount() { return count; }
+
+    long getErrors() { return errors.get(); }
+
+    /**
+     * @param percentile - the percentile to return, between 0 and 100
+     * @return the latency at the percentile in milliseconds, or 0 if nothing was recorded
+     */
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
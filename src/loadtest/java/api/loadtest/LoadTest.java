@@ -0,0 +1,425 @@
+package api.loadtest;
+
+import api.Application;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Self-contained HTTP load test. Boots {@link Application} against a fresh H2 file database, seeds it with Users and
+ * Tasks and then drives a weighted mix of the User and Task endpoints at a target rate. Reports p50/p99/p999
+ * latency and throughput per endpoint, plus how late the due Task scheduler marks Tasks as DONE.
+ *
+ * Latency is measured from when each request was meant to be sent, so requests queued behind slow ones count
+ * the time they spent waiting.
+ *
+ * Options (system properties):
+ * <ul>
+ *     <li>loadtest.users - number of Users to seed (default 100)</li>
+ *     <li>loadtest.tasks - number of Tasks to seed, spread across the Users (default 100000)</li>
+ *     <li>loadtest.rate - target requests per second (default 500)</li>
+ *     <li>loadtest.duration - seconds to run for (default 60)</li>
+ *     <li>loadtest.threads - number of client threads (default 32)</li>
+ *     <li>loadtest.mix - endpoint weights, e.g. get_task:40,list_tasks:15 (default see {@link Endpoint})</li>
+ *     <li>loadtest.dir - directory for the database and results (default target/loadtest)</li>
+ * </ul>
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class LoadTest {
+
+    /**
+     * The endpoints driven by the load test, along with their default weights in the mix
+     */
+    enum Endpoint {
+        LIST_USERS(5),
+        GET_USER(20),
+        LIST_TASKS(15),
+        GET_TASK(40),
+        CREATE_TASK(10),
+        UPDATE_TASK(10);
+
+        private final int defaultWeight;
+
+        Endpoint(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Tasks are created this many seconds in the future to measure scheduler lag, once every probe interval
+    private static final int PROBE_DELAY_SECONDS = 2;
+    private static final int PROBE_INTERVAL_MILLIS = 1000;
+    private static final int PROBE_POLL_MILLIS = 20;
+
+    // number of Tasks sent per batch request when seeding
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+
+    // seeded ids, taskUserIds[i] owns taskIds[i]
+    private final List<Integer> users = new ArrayList<>();
+    private int[] taskIds;
+    private int[] taskUserIds;
+
+    private final Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+    private final LatencyRecorder schedulerLag = new LatencyRecorder("scheduler_lag");
+
+    private LoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder(endpoint.name().toLowerCase()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int userCount = Integer.getInteger("loadtest.users", 100);
+        int taskCount = Integer.getInteger("loadtest.tasks", 100000);
+        int rate = Integer.getInteger("loadtest.rate", 500);
+        int duration = Integer.getInteger("loadtest.duration", 60);
+        int threads = Integer.getInteger("loadtest.threads", 32);
+        Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadtest.mix"));
+        File dir = new File(System.getProperty("loadtest.dir", "target/loadtest"));
+
+        // start from a fresh database every run
+        deleteRecursively(dir);
+        if (!dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:" + new File(dir, "database").getAbsolutePath()
+                        + ";DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.file=" + new File(dir, "user_tasker.log").getAbsolutePath(),
+                "--logging.level.root=WARN",
+                "--logging.level.TaskService=WARN",
+                "--logging.level.UserService=WARN");
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            LoadTest loadTest = new LoadTest("http://localhost:" + port);
+
+            System.out.println("Seeding " + userCount + " Users and " + taskCount + " Tasks");
+            loadTest.seed(userCount, taskCount);
+
+            System.out.println("Running " + rate + " requests/s for " + duration + "s with " + threads + " threads");
+            long elapsedNanos = loadTest.run(rate, duration, threads, mix);
+
+            Map<String, Object> results = loadTest.report(elapsedNanos, rate, duration);
+            File resultFile = new File(dir, "loadtest-result.json");
+            loadTest.mapper.writerWithDefaultPrettyPrinter().writeValue(resultFile, results);
+            System.out.println("Results written to " + resultFile);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Creates the Users and Tasks through the API, then reads back the Task ids through the export endpoint
+     */
+    private void seed(int userCount, int taskCount) throws IOException {
+        for (int i = 0; i < userCount; i++) {
+            Response response = request("POST", "/api/user",
+                    "{\"username\":\"user" + i + "\",\"first_name\":\"Load\",\"last_name\":\"Test" + i + "\"}");
+            users.add(mapper.readTree(response.body).get("id").asInt());
+        }
+
+        // half of the Tasks are already due, the other half are due in the future
+        String past = LocalDateTime.now().minusDays(1).format(DATE_TIME_FORMAT);
+        String future = LocalDateTime.now().plusYears(1).format(DATE_TIME_FORMAT);
+        int perUser = taskCount / userCount;
+        for (Integer user : users) {
+            for (int sent = 0; sent < perUser; sent += SEED_BATCH_SIZE) {
+                StringBuilder batch = new StringBuilder("[");
+                for (int i = sent; i < Math.min(perUser, sent + SEED_BATCH_SIZE); i++) {
+                    if (i > sent) {
+                        batch.append(',');
+                    }
+                    batch.append("{\"name\":\"task").append(i).append("\",\"description\":\"load test\",")
+                         .append("\"date_time\":\"").append(i % 2 == 0 ? past : future).append("\"}");
+                }
+                request("POST", "/api/user/" + user + "/task/batch", batch.append(']').toString());
+            }
+        }
+
+        Response export = request("GET", "/api/task/export", null);
+        String[] lines = export.body.split("\n");
+        taskIds = new int[lines.length];
+        taskUserIds = new int[lines.length];
+        int count = 0;
+        for (String line : lines) {
+            if (!line.isEmpty()) {
+                JsonNode task = mapper.readTree(line);
+                taskIds[count] = task.get("id").asInt();
+                taskUserIds[count] = task.get("userId").asInt();
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No Tasks were seeded");
+        }
+        taskIds = Arrays.copyOf(taskIds, count);
+        taskUserIds = Arrays.copyOf(taskUserIds, count);
+    }
+
+    /**
+     * Sends requests at the target rate for the duration, while probing the scheduler lag
+     *
+     * @return how long the run took in nanoseconds, including waiting for outstanding requests
+     */
+    private long run(int rate, int duration, int threads, Map<Endpoint, Integer> mix) throws InterruptedException {
+        Endpoint[] weighted = weightedEndpoints(mix);
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService probes = Executors.newScheduledThreadPool(2);
+        Map<Integer, Long> pendingProbes = new ConcurrentHashMap<>();
+
+        probes.scheduleAtFixedRate(() -> createProbe(pendingProbes), 0, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        probes.scheduleWithFixedDelay(() -> pollProbes(pendingProbes), PROBE_POLL_MILLIS, PROBE_POLL_MILLIS,
+                TimeUnit.MILLISECONDS);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * duration;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            clients.execute(() -> send(endpoint, intended));
+        }
+        clients.shutdown();
+        clients.awaitTermination(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        // give the last probes time to become due
+        Thread.sleep(TimeUnit.SECONDS.toMillis(PROBE_DELAY_SECONDS + 1));
+        probes.shutdownNow();
+        return elapsed;
+    }
+
+    private void send(Endpoint endpoint, long intendedNanos) {
+        LatencyRecorder recorder = recorders.get(endpoint);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = users.get(random.nextInt(users.size()));
+        int taskIndex = random.nextInt(taskIds.length);
+        try {
+            Response response;
+            switch (endpoint) {
+                case LIST_USERS:
+                    response = request("GET", "/api/user?limit=100", null);
+                    break;
+                case GET_USER:
+                    response = request("GET", "/api/user/" + user, null);
+                    break;
+                case LIST_TASKS:
+                    response = request("GET", "/api/user/" + user + "/task?limit=100", null);
+                    break;
+                case GET_TASK:
+                    response = request("GET", "/api/user/" + taskUserIds[taskIndex] + "/task/"
+                            + taskIds[taskIndex], null);
+                    break;
+                case CREATE_TASK:
+                    response = request("POST", "/api/user/" + user + "/task", newTaskJson());
+                    break;
+                case UPDATE_TASK:
+                    response = request("PUT", "/api/user/" + taskUserIds[taskIndex] + "/task/"
+                            + taskIds[taskIndex], "{\"description\":\"updated\"}");
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown endpoint " + endpoint);
+            }
+            if (response.status >= 400) {
+                recorder.recordError();
+            }
+        } catch (IOException ioe) {
+            recorder.recordError();
+        }
+        recorder.record(System.nanoTime() - intendedNanos);
+    }
+
+    // creates a Task that becomes due shortly, to measure how long after its due time it is marked DONE
+    private void createProbe(Map<Integer, Long> pendingProbes) {
+        try {
+            LocalDateTime due = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(PROBE_DELAY_SECONDS);
+            Response response = request("POST", "/api/user/" + users.get(0) + "/task",
+                    "{\"name\":\"probe\",\"description\":\"scheduler lag probe\",\"date_time\":\""
+                            + due.format(DATE_TIME_FORMAT) + "\"}");
+            int id = mapper.readTree(response.body).get("id").asInt();
+            pendingProbes.put(id, due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        } catch (IOException | RuntimeException e) {
+            schedulerLag.recordError();
+        }
+    }
+
+    private void pollProbes(Map<Integer, Long> pendingProbes) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, Long> probe : pendingProbes.entrySet()) {
+            if (now < probe.getValue()) {
+                continue;
+            }
+            try {
+                Response response = request("GET", "/api/user/" + users.get(0) + "/task/" + probe.getKey(), null);
+                if ("DONE".equals(mapper.readTree(response.body).path("status").asText())) {
+                    schedulerLag.record(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - probe.getValue()));
+                    pendingProbes.remove(probe.getKey());
+                }
+            } catch (IOException | RuntimeException e) {
+                schedulerLag.recordError();
+            }
+        }
+    }
+
+    private Map<String, Object> report(long elapsedNanos, int rate, int duration) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("target_rate", rate);
+        results.put("duration_seconds", duration);
+        results.put("elapsed_seconds", seconds);
+
+        System.out.println(String.format("%-14s %10s %10s %10s %10s %10s %10s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (LatencyRecorder recorder : recorders.values()) {
+            Map<String, Object> result = summarise(recorder);
+            result.put("throughput", recorder.getCount() / seconds);
+            endpoints.put(recorder.getName(), result);
+            System.out.println(String.format("%-14s %10d %10d %10.1f %10.2f %10.2f %10.2f",
+                    recorder.getName(), recorder.getCount(), recorder.getErrors(), recorder.getCount() / seconds,
+                    recorder.percentileMillis(50), recorder.percentileMillis(99), recorder.percentileMillis(99.9)));
+        }
+        results.put("endpoints", endpoints);
+
+        Map<String, Object> lag = summarise(schedulerLag);
+        lag.put("max_ms", schedulerLag.percentileMillis(100));
+        results.put("scheduler_lag", lag);
+        System.out.println(String.format("Scheduler lag (%d probes): p50 %.0f ms, p99 %.0f ms, max %.0f ms "
+                        + "(includes up to %d ms polling delay)",
+                schedulerLag.getCount(), schedulerLag.percentileMillis(50), schedulerLag.percentileMillis(99),
+                schedulerLag.percentileMillis(100), PROBE_POLL_MILLIS));
+        return results;
+    }
+
+    private static Map<String, Object> summarise(LatencyRecorder recorder) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", recorder.getCount());
+        result.put("errors", recorder.getErrors());
+        result.put("p50_ms", recorder.percentileMillis(50));
+        result.put("p99_ms", recorder.percentileMillis(99));
+        result.put("p999_ms", recorder.percentileMillis(99.9));
+        return result;
+    }
+
+    private static String newTaskJson() {
+        String dateTime = LocalDateTime.now().plusDays(1).format(DATE_TIME_FORMAT);
+        return "{\"name\":\"task\",\"description\":\"load test\",\"date_time\":\"" + dateTime + "\"}";
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        if (mix == null || mix.isEmpty()) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                weights.put(endpoint, endpoint.defaultWeight);
+            }
+            return weights;
+        }
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Endpoint.valueOf(parts[0].toUpperCase()), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static Endpoint[] weightedEndpoints(Map<Endpoint, Integer> mix) {
+        List<Endpoint> weighted = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must give at least one endpoint a weight");
+        }
+        return weighted.toArray(new Endpoint[0]);
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = (status >= 400) ? connection.getErrorStream() : connection.getInputStream();
+        // read the whole body so the connection can be reused
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package api;
+
+import api.controller.CompletedFutureReturnValueHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.DeferredResultMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts a {@link CompletedFutureReturnValueHandler} in front of Spring MVC's own return value handlers, so that
+ * controllers returning an already completed CompletableFuture don't go through async request processing
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CompletedFutureConfiguration {
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @PostConstruct
+    public void registerCompletedFutureHandler() {
+        List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(handlerAdapter.getReturnValueHandlers());
+        HandlerMethodReturnValueHandler asyncHandler = handlers.stream()
+                .filter(handler -> handler instanceof DeferredResultMethodReturnValueHandler)
+                .findFirst().orElseThrow(() -> new IllegalStateException("No CompletableFuture return value handler"));
+
+        // the results are handled by the same handlers as if they had been returned directly
+        List<HandlerMethodReturnValueHandler> resultHandlers = new ArrayList<>(handlers);
+        resultHandlers.remove(asyncHandler);
+        handlers.add(0, new CompletedFutureReturnValueHandler(asyncHandler, resultHandlers));
+        handlerAdapter.setReturnValueHandlers(handlers);
+    }
+}
@@ -0,0 +1,47 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Lets clients exchange {@link api.entity.Task}s and {@link api.entity.User}s as Smile or CBOR (binary JSON) instead
+ * of JSON, chosen by the Content-Type and Accept headers. JSON stays the default for requests that accept anything.
+ *
+ * The binary formats are written by ObjectMappers configured the same way as the JSON one (spring.jackson.*), so the
+ * same field names and date_time format are used whatever the format.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Configuration
+public class WireFormatConfiguration {
+
+    // media types of the binary formats, for the consumes and produces of request mappings
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+        return new MappingJackson2SmileHttpMessageConverter(build(Jackson2ObjectMapperBuilder.smile(), customizers));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+        return new MappingJackson2CborHttpMessageConverter(build(Jackson2ObjectMapperBuilder.cbor(), customizers));
+    }
+
+    private static ObjectMapper build(Jackson2ObjectMapperBuilder builder,
+                                      List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+        customizers.forEach(customizer -> customizer.customize(builder));
+        return builder.build();
+    }
+}
@@ -0,0 +1,118 @@
+package api.controller;
+
+import api.service.DbExecutor;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Writes the results of handlers that return a {@link CompletableFuture} which is already completed (as returned by
+ * {@link DbExecutor} when usertasker.async.enabled is false) straight away, as if the handler had returned the result
+ * itself. Only futures that are still running are handled asynchronously, as otherwise every request would start
+ * async processing and be dispatched a second time just to write a result that was already there.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    // handles the futures that are still running
+    private final HandlerMethodReturnValueHandler asyncHandler;
+    // handle the results of completed futures
+    private final List<HandlerMethodReturnValueHandler> resultHandlers;
+
+    /**
+     * @param asyncHandler - the handler for futures that are still running
+     * @param resultHandlers - the handlers for the results of completed futures, in order of precedence
+     */
+    public CompletedFutureReturnValueHandler(HandlerMethodReturnValueHandler asyncHandler,
+                                             List<HandlerMethodReturnValueHandler> resultHandlers) {
+        this.asyncHandler = asyncHandler;
+        this.resultHandlers = resultHandlers;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future == null || !future.isDone()) {
+            asyncHandler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+
+        Object result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            // handled by the @ExceptionHandlers, as it would have been if the handler had thrown it
+            throw unwrap(e.getCause());
+        }
+        MethodParameter resultType = new CompletedResultMethodParameter(returnType, result);
+        for (HandlerMethodReturnValueHandler handler : resultHandlers) {
+            if (handler.supportsReturnType(resultType)) {
+                handler.handleReturnValue(result, resultType, mavContainer, webRequest);
+                return;
+            }
+        }
+        throw new IllegalStateException("No handler for the result of " + returnType.getMethod());
+    }
+
+    private static Exception unwrap(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new ExecutionException(cause);
+    }
+
+    /**
+     * Return type of a handler method as seen by the handlers of the result of its CompletableFuture
+     */
+    private static class CompletedResultMethodParameter extends MethodParameter {
+
+        private final Object result;
+        private final ResolvableType resultType;
+
+        CompletedResultMethodParameter(MethodParameter returnType, Object result) {
+            super(returnType);
+            this.result = result;
+            this.resultType = ResolvableType.forMethodParameter(returnType).getGeneric();
+        }
+
+        private CompletedResultMethodParameter(CompletedResultMethodParameter original) {
+            super(original);
+            this.result = original.result;
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return (result != null) ? result.getClass() : resultType.resolve(Object.class);
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType.getType();
+        }
+
+        @Override
+        public CompletedResultMethodParameter clone() {
+            return new CompletedResultMethodParameter(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package api.controller;
+
+import api.service.DbExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Responds with 503 Service Unavailable to requests that are rejected because the {@link DbExecutor} is full, so that
+ * clients fail fast and can retry instead of waiting in an unbounded queue
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RestControllerAdvice
+public class DbExecutorAdvice {
+
+    // seconds clients should wait before retrying
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(new ErrorResponse("Too many requests in progress, please try again later"));
+    }
+}
@@ -0,0 +1,67 @@
+package api.controller;
+
+/**
+ * Builds ETags from versions and matches them against If-None-Match and If-Match headers.
+ *
+ * All ETags are weak: a User, Task or listing has the same ETag whether it is sent as JSON, Smile or CBOR and whether
+ * or not Tomcat gzips it, so the bodies sent with an ETag are only semantically equivalent, not byte for byte the
+ * same. If-Match headers are compared by the version in the ETag instead, so that clients can send back the ETag of a
+ * User or Task they retrieved in any format to update it.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * @param version - the version of the resource
+     * @return the weak ETag of the version
+     */
+    static String weak(Object version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * @param header - an If-None-Match or If-Match header value, a comma separated list of ETags or *, may be null
+     * @param etag - the current ETag of the resource, strong or weak
+     * @return true if the header contains the ETag or is *
+     */
+    static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            // If-None-Match uses weak comparison, ETags match if their values match whether or not they are weak
+            if (candidate.equals("*") || opaqueTag(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the quoted value of an ETag, without the W/ of a weak ETag
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * @param ifMatch - an If-Match header value, may be null
+     * @return the version in a single ETag, weak or strong, or null if the header is missing or *
+     * @throws NumberFormatException if the header is not a single ETag of a version
+     */
+    static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = opaqueTag(ifMatch.trim());
+        if (etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new NumberFormatException("Not an ETag: " + etag);
+        }
+        return Long.valueOf(etag.substring(1, etag.length() - 1));
+    }
+}
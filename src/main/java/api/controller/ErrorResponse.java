@@ -0,0 +1,18 @@
+package api.controller;
+
+/**
+ * JSON body of an HTTP error response
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class ErrorResponse {
+
+    private final String error;
+
+    public ErrorResponse(String error) {
+        this.error = error;
+    }
+
+    public String getError() { return error; }
+}
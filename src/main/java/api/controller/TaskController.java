@@ -2,31 +2,46 @@ package api.controller;
 
 import api.entity.Task;
 import api.entity.User;
+import api.service.DbExecutor;
+import api.service.MultiGetResult;
+import api.service.TaskEventPublisher;
 import api.service.TaskService;
 import api.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static api.WireFormatConfiguration.CBOR;
+import static api.WireFormatConfiguration.SMILE;
 
 /**
  * Controller for receiving and sending HTTP requests that allow {@link Task}s for a specific {@link User}
@@ -46,31 +61,86 @@ public class TaskController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DbExecutor dbExecutor;
+
+    @Autowired
+    private TaskEventPublisher taskEvents;
+
     // pattern for date_time strings
     private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
     // HTTP error messages
     private static final String NO_USER = "User (ID: {0}) does not exist";
     private static final String NO_TASK = "Invalid Task (ID: {0}) for User (ID: {1})";
+    private static final String TASK_CHANGED = "Task (ID: {0}) has been changed since it was retrieved";
+
+    // page sizes for listing Tasks
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 1000;
 
-    // platform independent line separator (for formatting HTTP responses)
-    private static final String LINE_SEP = System.lineSeparator();
+    // most Tasks that can be created by a single batch request
+    @Value("${usertasker.task.max-batch-size:10000}")
+    private int maxBatchSize;
 
     /**
-     * GET request to /api/user/{user_id}/task returns list of all Tasks for {user_id} User
+     * GET request to /api/user/{user_id}/task returns a page of Tasks for {user_id} User, ordered by id
      *
-     * @return the List of Tasks or an error message
+     * @param limit - the maximum number of Tasks to return (at most 1000)
+     * @param after - the next_cursor of the previous page, if any
+     * @param include_archived - whether to include the User's archived Tasks
+     * @param ifNoneMatch - the ETag of the copy of the page the client has, if any
+     * @return the page of Tasks, Not Modified if none of the User's Tasks have changed, or an error message
      */
     @GetMapping()
-    public ResponseEntity<?> getTasksForUser(@PathVariable int user_id) {
+    public CompletableFuture<ResponseEntity<?>> getTasksForUser(
+            @PathVariable int user_id, @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "0") int after, @RequestParam(defaultValue = "false") boolean include_archived,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return dbExecutor.submit(() -> {
+            if (!userService.userExists(user_id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
+            } else if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("limit must be between 1 and " + MAX_PAGE_SIZE));
+            }
 
-        if (!userService.userExists(user_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, user_id) + LINE_SEP);
-        }
+            // any change to the User's Tasks changes the ETag, so the page is only fetched if it could have changed.
+            // Weak so that the page can still be gzipped, and it is the same for every format
+            String etag = ETags.weak(taskService.getTasksVersion(user_id, include_archived));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.status(HttpStatus.OK).eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                    .body(taskService.getTasksForUser(user_id, after, limit, include_archived));
+        });
+    }
+
+    /**
+     * GET request to /api/user/{user_id}/task?ids=1,2,3 returns the listed Tasks of {user_id} User
+     *
+     * @param ids - the ids of the Tasks to return (at most 1000)
+     * @return the Tasks that were found ("items") and the ids of the Tasks that were not ("missing"),
+     * or an error message
+     */
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<?>> getTasksForUserByIds(@PathVariable int user_id,
+                                                                     @RequestParam List<Integer> ids) {
+        return dbExecutor.submit(() -> {
+            if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("ids must list between 1 and " + MAX_PAGE_SIZE + " ids"));
+            }
 
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(taskService.getAllTasksForUser(user_id) + LINE_SEP);
+            MultiGetResult<Task> tasks = taskService.getTasksForUser(user_id, ids);
+            // only check whether the User exists once none of the Tasks were found
+            if (tasks.getItems().isEmpty() && !userService.userExists(user_id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(tasks);
+        });
     }
 
     /**
@@ -79,29 +149,61 @@ public class TaskController {
      * @param newTask - the Task to create for the User
      * @return The Task or an error message
      */
-    @PostMapping(consumes = "application/JSON")
-    public ResponseEntity<?> createTask(@PathVariable int user_id, @RequestBody Task newTask) {
+    @PostMapping(consumes = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> createTask(@PathVariable int user_id, @RequestBody Task newTask) {
+        return dbExecutor.submit(() -> {
+            if (!userService.userExists(user_id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
+            }
 
-        if (!userService.userExists(user_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, user_id) + LINE_SEP);
-        }
+            try {
+                Task task = taskService.addTask(user_id, newTask);
+                return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.weak(task.getVersion())).body(task);
 
-        try {
-            Task task = taskService.addTask(user_id, newTask);
-            return ResponseEntity.status(HttpStatus.CREATED).body("Created task " + task + LINE_SEP);
-
-        } catch (IllegalArgumentException iae) {
-            // date_time in newTask is in the wrong format
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Invalid date format for date_time of " + newTask.getDateTime()
-                            + ". Please use " + DATE_TIME_PATTERN + LINE_SEP);
-        } catch (DateTimeParseException dtpe) {
-            // date_time in newTask could not be parsed
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Could not parse date_time string " + newTask.getDateTime()
-                            + ". Please use " + DATE_TIME_PATTERN + LINE_SEP);
-        }
+            } catch (IllegalArgumentException iae) {
+                // date_time in newTask is in the wrong format
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("Invalid date format for date_time of " + newTask.getDateTime()
+                                + ". Please use " + DATE_TIME_PATTERN));
+            } catch (DateTimeParseException dtpe) {
+                // date_time in newTask could not be parsed
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("Could not parse date_time string " + newTask.getDateTime()
+                                + ". Please use " + DATE_TIME_PATTERN));
+            }
+        });
+    }
+
+    /**
+     * POST request to /api/user/{user_id}/task/batch creates a batch of new tasks for {user_id} User
+     *
+     * @param newTasks - the Tasks to create for the User, at most usertasker.task.max-batch-size
+     * @return The number of Tasks created (as {"created": n}) or an error message
+     */
+    @PostMapping(value = "/batch", consumes = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> createTasks(@PathVariable int user_id,
+                                                            @RequestBody List<Task> newTasks) {
+        return dbExecutor.submit(() -> {
+            if (!userService.userExists(user_id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
+            } else if (newTasks.size() > maxBatchSize) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("A batch can create at most " + maxBatchSize + " Tasks"));
+            }
+
+            try {
+                List<Task> tasks = taskService.addTasks(user_id, newTasks);
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Collections.singletonMap("created", tasks.size()));
+
+            } catch (IllegalArgumentException iae) {
+                // a date_time in newTasks is missing or in the wrong format
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(iae.getMessage() + ". Please use " + DATE_TIME_PATTERN));
+            }
+        });
     }
 
     /**
@@ -109,81 +211,132 @@ public class TaskController {
      *
      * @param task_id - the id of the Task to updateWith
      * @param newTask - Task object containing updated values
-     * @return The updated Task or an error message
+     * @param ifMatch - the ETag the Task must still have to be updated, if any
+     * @return The updated Task, Precondition Failed if the Task no longer has the ETag, or an error message
      */
-    @PutMapping(value = "/{task_id}", consumes = "application/JSON")
-    @Transactional
-    public ResponseEntity<?> updateTask(@PathVariable int user_id, @PathVariable int task_id, @RequestBody Task newTask) {
+    @PutMapping(value = "/{task_id}", consumes = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> updateTask(
+            @PathVariable int user_id, @PathVariable int task_id, @RequestBody Task newTask,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return dbExecutor.submit(() -> {
+            Optional<Task> task;
+            try {
+                task = taskService.updateTask(user_id, task_id, newTask, ETags.versionOf(ifMatch));
+            } catch (NumberFormatException | OptimisticLockingFailureException e) {
+                // changed since the client retrieved it, or by another request while being updated
+                return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                        .body(new ErrorResponse(MessageFormat.format(TASK_CHANGED, task_id)));
+            } catch (DateTimeParseException dtpe) {
+                // date_time in newTask could not be parsed
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("Could not parse date_time string " + newTask.getDateTime()
+                                + ". Please use " + DATE_TIME_PATTERN));
+            }
 
-        if (!userService.userExists(user_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, user_id) + LINE_SEP);
-        } else if (!taskService.taskExists(task_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
-        }
-
-        Optional<Task> task = taskService.updateTask(user_id, task_id, newTask);
+            if (task.isPresent()) {
+                return ResponseEntity.status(HttpStatus.OK).eTag(ETags.weak(task.get().getVersion())).body(task.get());
 
-        if (task.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body("Updated Task " + task.get() + LINE_SEP);
+            } else {
+                return taskNotFound(user_id, task_id);
+            }
+        });
+    }
 
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
-        }
+    /**
+     * GET request to /api/user/{user_id}/task/summary returns the number of {user_id} User's Tasks with each Status
+     *
+     * @return the counts (as {"pending": n, "done": n, "total": n}) or an error message
+     */
+    @GetMapping(value = "/summary", produces = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> getTaskSummary(@PathVariable int user_id) {
+        return dbExecutor.submit(() -> {
+            if (!userService.userExists(user_id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(taskService.getTaskSummary(user_id));
+        });
     }
 
     /**
-     * GET request to /api/user/{user_id}/task/{task_id} returns the details of {task_id} Task for {user_id} User
+     * GET request to /api/user/{user_id}/task/events streams the status changes of {user_id} User's Tasks as
+     * Server-Sent Events, each "status" event's data being {"task_id": n, "status": "PENDING" | "DONE"}. A batch of
+     * Tasks added through /batch is sent as a single "added" event, {"pending": n, "done": n, "total": n}
      *
-     * @param task_id - the id of the Task to retrieve info for
-     * @return The Task if found, otherwise an error message
+     * @param lastEventId - the id of the last event received before reconnecting, if any, to resume from
+     * @return the event stream or an error message
+     * @throws IOException if the error message could not be written
      */
-    @GetMapping(value = "/{task_id}", produces = "application/JSON")
-    public ResponseEntity<?> getTaskInfo(@PathVariable int user_id, @PathVariable int task_id) {
+    @GetMapping("/events")
+    public ResponseEntity<ResponseBodyEmitter> getTaskEvents(
+            @PathVariable int user_id, @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId)
+            throws IOException {
 
         if (!userService.userExists(user_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, user_id) + LINE_SEP);
-        } else if (!taskService.taskExists(task_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
+            // the body must be a ResponseBodyEmitter for the return type to be handled as a stream
+            ResponseBodyEmitter error = new ResponseBodyEmitter();
+            error.send(new ErrorResponse(MessageFormat.format(NO_USER, user_id)), MediaType.APPLICATION_JSON);
+            error.complete();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error);
         }
+        return ResponseEntity.ok(taskEvents.subscribe(user_id, lastEventId));
+    }
 
-        Optional<Task> task = taskService.getTaskInfo(user_id, task_id);
-        if (task.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK)
-                    .body(task.get() + LINE_SEP);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
-        }
+    /**
+     * GET request to /api/user/{user_id}/task/{task_id} returns the details of {task_id} Task for {user_id} User
+     *
+     * @param task_id - the id of the Task to retrieve info for
+     * @param include_archived - whether to also look for the Task in the archive
+     * @param ifNoneMatch - the ETag of the copy of the Task the client has, if any
+     * @return The Task if found, Not Modified if the client's copy is current, otherwise an error message
+     */
+    @GetMapping(value = "/{task_id}", produces = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> getTaskInfo(
+            @PathVariable int user_id, @PathVariable int task_id,
+            @RequestParam(defaultValue = "false") boolean include_archived,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return dbExecutor.submit(() -> {
+            Optional<Task> task = taskService.getTaskInfo(user_id, task_id, include_archived);
+            if (task.isPresent()) {
+                String etag = ETags.weak(task.get().getVersion());
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+                }
+                return ResponseEntity.status(HttpStatus.OK).eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                        .body(task.get());
+            } else {
+                return taskNotFound(user_id, task_id);
+            }
+        });
     }
 
     /**
      * DELETE request to /api/user/{user_id}/task/{task_id} deletes {task_id} Task of {user_id} User
      *
      * @param task_id - the id of the Task to delete
-     * @return The deleted Task or an error message
+     * @return No content if the Task was deleted, otherwise an error message
      */
     @DeleteMapping("/{task_id}")
-    public ResponseEntity<?> deleteTask(@PathVariable int user_id, @PathVariable int task_id) {
+    public CompletableFuture<ResponseEntity<?>> deleteTask(@PathVariable int user_id, @PathVariable int task_id) {
+        return dbExecutor.submit(() -> {
+            if (taskService.deleteTask(user_id, task_id)) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            } else {
+                return taskNotFound(user_id, task_id);
+            }
+        });
+    }
 
+    /**
+     * Builds the 404 response for a Task that was not found for a User, only checking whether the User exists once
+     * the Task lookup has failed
+     */
+    private ResponseEntity<?> taskNotFound(int user_id, int task_id) {
         if (!userService.userExists(user_id)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, user_id) + LINE_SEP);
-        } else if (!taskService.taskExists(task_id)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
-        }
-
-        Optional<Task> task = taskService.deleteTaskById(task_id);
-        if (task.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body("Deleted Task " + task.get() + LINE_SEP);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_TASK, task_id, user_id) + LINE_SEP);
+                    .body(new ErrorResponse(MessageFormat.format(NO_USER, user_id)));
         }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(MessageFormat.format(NO_TASK, task_id, user_id)));
     }
 }
@@ -0,0 +1,65 @@
+package api.controller;
+
+import api.entity.Task;
+import api.service.TaskService;
+import api.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.text.MessageFormat;
+
+/**
+ * Controller for HTTP requests that export {@link Task}s in bulk
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RestController
+@RequestMapping("/api/task")
+public class TaskExportController {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // newline delimited JSON, one Task per line
+    private static final String NDJSON = "application/x-ndjson";
+
+    // HTTP error messages
+    private static final String NO_USER = "User (ID: {0}) does not exist";
+
+    /**
+     * GET request to /api/task/export streams all Tasks as newline delimited JSON
+     *
+     * @param user_id - only export Tasks for this User, if given
+     * @param status - only export Tasks with this Status, if given
+     * @return the streamed Tasks or an error message
+     */
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(required = false) Integer user_id,
+                                                             @RequestParam(required = false) Task.Status status) {
+
+        if (user_id != null && !userService.userExists(user_id)) {
+            // the body must be a StreamingResponseBody for the return type to be handled as a stream
+            ErrorResponse error = new ErrorResponse(MessageFormat.format(NO_USER, user_id));
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        StreamingResponseBody body = out -> taskService.exportTasks(user_id, status, out);
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+}
@@ -1,21 +1,31 @@
 package api.controller;
 
 import api.entity.User;
+import api.service.DbExecutor;
+import api.service.MultiGetResult;
 import api.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.text.MessageFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static api.WireFormatConfiguration.CBOR;
+import static api.WireFormatConfiguration.SMILE;
 
 /**
  * Controller for HTTP requests that allow Users to be added, modified and queried
@@ -30,20 +40,52 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DbExecutor dbExecutor;
+
     // Http error messages
     private static final String NO_USER = "User (ID: {0}) does not exist";
+    private static final String USER_CHANGED = "User (ID: {0}) has been changed since it was retrieved";
 
-    // platform independent line separator (for formatting HTTP responses)
-    private static final String LINE_SEP = System.lineSeparator();
+    // page sizes for listing Users
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final int MAX_PAGE_SIZE = 1000;
 
     /**
-     * GET request to /api/user returns a List of all Users
+     * GET request to /api/user returns a page of Users, ordered by id
      *
-     * @return - List of User objects
+     * @param limit - the maximum number of Users to return (at most 1000)
+     * @param after - the next_cursor of the previous page, if any
+     * @return - page of User objects
      */
     @GetMapping()
-    public ResponseEntity<?> listAllUsers() {
-        return ResponseEntity.status(HttpStatus.OK).body(userService.getAllUsers() + LINE_SEP);
+    public CompletableFuture<ResponseEntity<?>> listAllUsers(@RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+                                                             @RequestParam(defaultValue = "0") int after) {
+        return dbExecutor.submit(() -> {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("limit must be between 1 and " + MAX_PAGE_SIZE));
+            }
+            return ResponseEntity.status(HttpStatus.OK).body(userService.getUsers(after, limit));
+        });
+    }
+
+    /**
+     * GET request to /api/user?ids=1,2,3 returns the listed Users
+     *
+     * @param ids - the ids of the Users to return (at most 1000)
+     * @return - the Users that were found ("items") and the ids of the Users that were not ("missing")
+     */
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<?>> getUsersByIds(@RequestParam List<Integer> ids) {
+        return dbExecutor.submit(() -> {
+            if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse("ids must list between 1 and " + MAX_PAGE_SIZE + " ids"));
+            }
+            MultiGetResult<User> users = userService.getUsers(ids);
+            return ResponseEntity.status(HttpStatus.OK).body(users);
+        });
     }
 
     /**
@@ -51,27 +93,38 @@ public class UserController {
      *
      * @param newUser - the User to add
      */
-    @PostMapping(consumes = "application/JSON")
-    public ResponseEntity<String> createUser(@RequestBody User newUser) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body("Created User " + userService.addUser(newUser) + LINE_SEP);
+    @PostMapping(consumes = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<User>> createUser(@RequestBody User newUser) {
+        return dbExecutor.submit(() -> {
+            User user = userService.addUser(newUser);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.weak(user.getVersion())).body(user);
+        });
     }
 
     /**
      * GET request to /api/user/{id} returns the info of the {id} User
      *
      * @param id - the id of the User to return info for
-     * @return - User object containing info
+     * @param ifNoneMatch - the ETag of the copy of the User the client has, if any
+     * @return - User object containing info, or Not Modified if the client's copy is current
      */
-    @GetMapping(value = "{id}", produces="application/JSON")
-    public ResponseEntity<?> getUserInfo(@PathVariable int id) {
-        Optional<User> user = userService.getUserById(id);
-        if (user.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body(user.get() + LINE_SEP);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(MessageFormat.format(NO_USER, id) + LINE_SEP);
-        }
+    @GetMapping(value = "{id}", produces = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> getUserInfo(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return dbExecutor.submit(() -> {
+            Optional<User> user = userService.getUserById(id);
+            if (user.isPresent()) {
+                String etag = ETags.weak(user.get().getVersion());
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+                }
+                return ResponseEntity.status(HttpStatus.OK).eTag(etag).varyBy(HttpHeaders.ACCEPT).body(user.get());
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, id)));
+            }
+        });
     }
 
     /**
@@ -79,16 +132,29 @@ public class UserController {
      *
      * @param id - the id of the user to updateWith
      * @param newUser - User object containing new values
+     * @param ifMatch - the ETag the User must still have to be updated, if any
      */
-    @PutMapping(value = "{id}", consumes = "application/JSON")
-    @Transactional
-    public ResponseEntity<?> updateUser(@PathVariable int id, @RequestBody User newUser) {
-        Optional<User> currentUser = userService.updateUser(id, newUser);
-        if (currentUser.isPresent()) {
-            return ResponseEntity.status(HttpStatus.OK).body("Updated User " + currentUser.get() + LINE_SEP);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(MessageFormat.format(NO_USER, id) + LINE_SEP);
-        }
+    @PutMapping(value = "{id}", consumes = {"application/JSON", SMILE, CBOR})
+    public CompletableFuture<ResponseEntity<?>> updateUser(
+            @PathVariable int id, @RequestBody User newUser,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return dbExecutor.submit(() -> {
+            Optional<User> currentUser;
+            try {
+                currentUser = userService.updateUser(id, newUser, ETags.versionOf(ifMatch));
+            } catch (NumberFormatException | OptimisticLockingFailureException e) {
+                // changed since the client retrieved it, or by another request while being updated
+                return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                        .body(new ErrorResponse(MessageFormat.format(USER_CHANGED, id)));
+            }
+            if (currentUser.isPresent()) {
+                return ResponseEntity.status(HttpStatus.OK).eTag(ETags.weak(currentUser.get().getVersion()))
+                        .body(currentUser.get());
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse(MessageFormat.format(NO_USER, id)));
+            }
+        });
     }
 
 
@@ -1,9 +1,7 @@
 package api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.hibernate.annotations.GenericGenerator;
 import org.springframework.lang.NonNull;
 
 import javax.persistence.Column;
@@ -13,8 +11,15 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * Represents a {@link User}'s Task
@@ -23,6 +28,12 @@ import java.time.LocalDateTime;
  * @since 19 September 2018
  */
 @Entity
+@Table(indexes = { // created by the V3__Add_task_indexes migration
+        @Index(name = "idx_task_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_task_user_id_due_time", columnList = "user_id, due_time"),
+        @Index(name = "idx_task_status_due_time", columnList = "status, due_time"),
+        @Index(name = "idx_task_due_time", columnList = "due_time")
+})
 public class Task implements Serializable {
 
     public enum Status {
@@ -30,18 +41,29 @@ public class Task implements Serializable {
         DONE
     }
 
+    // pattern for date_time strings
+    public static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+
+    // ids are allocated from a sequence 50 at a time so that inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "increment")
-    @GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Integer id;
     @Column(name = "user_id")
     private Integer userId;
     private String name;
     private String description;
-    @Column(name = "date_time")
+    @Column(name = "due_time")
+    private LocalDateTime dueTime;
+    // date_time exactly as received in a request, until it is parsed into dueTime
+    @Transient
     private String dateTime;
     @Enumerated(EnumType.STRING) // use the enum's name
     private Status status;
+    // incremented on every change, bulk status updates must increment it themselves
+    @Version
+    private Long version;
 
     public Integer getId() { return id; }
 
@@ -58,15 +80,25 @@ public class Task implements Serializable {
     public void setDescription(String description) { this.description = description; }
 
     @JsonProperty("date_time")
-    public String getDateTime() { return dateTime; }
+    public String getDateTime() { return (dueTime != null) ? dueTime.format(DATE_TIME_FORMAT) : dateTime; }
 
     @JsonProperty("date_time")
     public void setDateTime(String dateTime) { this.dateTime = dateTime; }
 
+    @JsonIgnore
+    public LocalDateTime getDueTime() { return dueTime; }
+
+    @JsonIgnore
+    public void setDueTime(LocalDateTime dueTime) { this.dueTime = dueTime; }
+
     public Status getStatus() { return status; }
 
     public void setStatus(Status status) { this.status = status; }
 
+    // sent as the ETag header rather than in the body
+    @JsonIgnore
+    public Long getVersion() { return version; }
+
     /**
      * Updates all fields in this Task with whatever fields are present in newTask
      * @param newTask - the Task containing the fields to update this Task with
@@ -75,7 +107,7 @@ public class Task implements Serializable {
         Integer newUserId = newTask.getUserId();
         String newName = newTask.getName();
         String newDesc = newTask.getDescription();
-        String newDT = newTask.getDateTime();
+        LocalDateTime newDueTime = newTask.getDueTime();
         Status newStatus = newTask.getStatus();
         if (newUserId != null) {
             this.userId = newUserId;
@@ -86,24 +118,30 @@ public class Task implements Serializable {
         if (newDesc != null) {
             this.description = newDesc;
         }
-        if (newDT != null && ! newDT.equals("null")) {
-            this.dateTime = newDT;
+        if (newDueTime != null) {
+            this.dueTime = newDueTime;
         }
         if (newStatus != null) {
             this.status = newStatus;
         }
     }
 
+    /**
+     * Parses a date_time string
+     * @param dateTime - the date_time string in the {@link #DATE_TIME_PATTERN} format
+     * @return the parsed date and time
+     * @throws DateTimeParseException if dateTime is not in the correct format
+     */
+    public static LocalDateTime parseDateTime(String dateTime) throws DateTimeParseException {
+        return LocalDateTime.parse(dateTime, DATE_TIME_FORMAT);
+    }
+
+    /**
+     * Cheap representation for logging, HTTP responses are serialized by Spring's shared ObjectMapper instead
+     */
     @Override
     public String toString() {
-        try {
-            // try to return JSON representation of this Task
-            return (new ObjectMapper()).writeValueAsString(this);
-        } catch (JsonProcessingException jpe) {
-            return String.format(
-                "Task { ID = %d , UserID = %d , Name = %s , Description = %s , Date_Time = %s , Status = %s }",
-                             id ,      userId ,      name ,      description , dateTime, status.name());
-        }
-
+        return "Task { ID = " + id + " , UserID = " + userId + " , Name = " + name + " , Description = " + description
+                + " , Date_Time = " + getDateTime() + " , Status = " + status + " }";
     }
 }
@@ -1,15 +1,15 @@
 package api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -24,17 +24,21 @@ public class User implements Serializable {
 
     /*
      Normal @GeneratedValue defaults to TABLE generation causing ids to increment between tables instead
-     of each table incrementing its own id
+     of each table incrementing its own id. Each table has its own sequence instead, allocating ids 50 at a time
+     so that inserts can be batched
       */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO, generator = "increment")
-    @GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Integer id;
     private String username;
     @Column(name = "first_name")
     private String firstName;
     @Column(name = "last_name")
     private String lastName;
+    // incremented on every change
+    @Version
+    private Long version;
 
     public Integer getId() { return id; }
 
@@ -54,6 +58,10 @@ public class User implements Serializable {
     @JsonProperty("last_name")
     public void setLastName(String lastName) { this.lastName = lastName; }
 
+    // sent as the ETag header rather than in the body
+    @JsonIgnore
+    public Long getVersion() { return version; }
+
     /**
      * Updates all fields in this User with whatever fields are present in otherUser
      *
@@ -75,16 +83,12 @@ public class User implements Serializable {
         }
     }
 
+    /**
+     * Cheap representation for logging, HTTP responses are serialized by Spring's shared ObjectMapper instead
+     */
     @Override
     public String toString() {
-        try {
-            // try to return JSON representation of this User
-            return (new ObjectMapper()).writeValueAsString(this);
-        } catch (JsonProcessingException jpe) {
-            return String.format(
-                    "User { id = %d , username = %s , firstName = %s , lastName = %s }",
-                                 id ,      username , firstName, lastName);
-        }
-
+        return "User { id = " + id + " , username = " + username + " , firstName = " + firstName
+                + " , lastName = " + lastName + " }";
     }
 }
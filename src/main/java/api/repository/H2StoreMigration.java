@@ -0,0 +1,94 @@
+package api.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Converts an H2 database file created by earlier versions of the application with the legacy PageStore
+ * (MV_STORE=FALSE, database.h2.db) into the MVStore format (database.mv.db), which supports MVCC and row-level
+ * locking.
+ *
+ * The PageStore database is exported to a SQL script, the script is run against a new MVStore database and the old
+ * file is kept as database.h2.db.bak. Runs before the DataSource is created so that the application only ever opens
+ * the MVStore file.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class H2StoreMigration implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+    private static final String PAGE_STORE_SUFFIX = ".h2.db";
+    private static final String MV_STORE_SUFFIX = ".mv.db";
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        Environment env = event.getEnvironment();
+        String url = env.getProperty("spring.datasource.url");
+        if (url == null || !url.startsWith(H2_URL_PREFIX)) {
+            return;
+        }
+        String path = url.substring(H2_URL_PREFIX.length()).split(";", 2)[0];
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        } else if (path.startsWith("mem:") || path.startsWith("tcp:") || path.startsWith("ssl:")) {
+            // only embedded database files can be converted
+            return;
+        }
+
+        File pageStore = new File(path + PAGE_STORE_SUFFIX);
+        File mvStore = new File(path + MV_STORE_SUFFIX);
+        if (!pageStore.isFile() || mvStore.exists()) {
+            return;
+        }
+
+        String username = env.getProperty("spring.datasource.username", "");
+        String password = env.getProperty("spring.datasource.password", "");
+        try {
+            migrate(path, pageStore, username, password);
+        } catch (SQLException | IOException e) {
+            // leave the PageStore file in place so that the migration is retried on the next start
+            mvStore.delete();
+            throw new IllegalStateException("Could not migrate " + pageStore + " to the MVStore format", e);
+        }
+    }
+
+    private void migrate(String path, File pageStore, String username, String password)
+            throws SQLException, IOException {
+        File script = File.createTempFile("usertasker-migration", ".sql");
+        try {
+            logger.info("Migrating {} to the MVStore format", pageStore);
+            try (Connection connection = DriverManager.getConnection(
+                    H2_URL_PREFIX + path + ";MV_STORE=FALSE;MVCC=FALSE;IFEXISTS=TRUE", username, password);
+                 PreparedStatement statement = connection.prepareStatement("SCRIPT TO ?")) {
+                statement.setString(1, script.getAbsolutePath());
+                statement.execute();
+            }
+            try (Connection connection = DriverManager.getConnection(
+                    H2_URL_PREFIX + path + ";MV_STORE=TRUE;MVCC=TRUE", username, password);
+                 PreparedStatement statement = connection.prepareStatement("RUNSCRIPT FROM ?")) {
+                statement.setString(1, script.getAbsolutePath());
+                statement.execute();
+            }
+            Files.move(pageStore.toPath(), new File(pageStore.getPath() + ".bak").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Migrated {} to the MVStore format, the old file was kept as {}.bak", pageStore, pageStore);
+        } finally {
+            script.delete();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package api.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call to {@link TaskRepository} and {@link UserRepository}, published as the repository.calls timer
+ * tagged with the repository, method and whether the call threw an exception
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("target(api.repository.TaskRepository) || target(api.repository.UserRepository)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = (joinPoint.getTarget() instanceof TaskRepository) ? "TaskRepository" : "UserRepository";
+        String outcome = "success";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            outcome = "error";
+            throw t;
+        } finally {
+            sample.stop(Timer.builder("repository.calls")
+                    .description("Calls to Spring Data repositories")
+                    .tag("repository", repository)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
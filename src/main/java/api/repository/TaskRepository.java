@@ -1,9 +1,22 @@
 package api.repository;
 
 import api.entity.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Provides database operations on {@link Task}s using JPA
@@ -15,4 +28,226 @@ public interface TaskRepository extends JpaRepository<Task, Integer> {
 
     // Returns a List of all Tasks associated with {userId} User
     List<Task> findAllByUserId(Integer userId);
+
+    // Returns the {id} Task if it is associated with {userId} User
+    Optional<Task> findByIdAndUserId(Integer id, Integer userId);
+
+    // Returns a List of the Tasks with an id in {ids} that are associated with {userId} User
+    List<Task> findAllByUserIdAndIdIn(Integer userId, Collection<Integer> ids);
+
+    // Deletes the {id} Task if it is associated with {userId} User, returns the number of Tasks deleted
+    @Modifying
+    @Transactional
+    @Query("delete from Task t where t.id = :id and t.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") Integer id, @Param("userId") Integer userId);
+
+    // Returns up to {limit} Tasks associated with {userId} User with an id greater than {after}, in id order. H2 costs
+    // the id range on the primary key the same as on idx_task_user_id_id, so the index has to be named
+    @Query(value = "select id, user_id, name, description, due_time, status, version from task " +
+                   "use index (idx_task_user_id_id) where user_id = :userId and id > :after order by id limit :limit",
+           nativeQuery = true)
+    List<Task> findByUserIdAfter(@Param("userId") Integer userId, @Param("after") Integer after,
+                                 @Param("limit") int limit);
+
+    // Returns up to {pageable} size Tasks with an id greater than {after}, in id order
+    List<Task> findAllByIdGreaterThanOrderByIdAsc(Integer after, Pageable pageable);
+
+    // Streams all Tasks in id order, only those with {status} Status if it is not null. Must be consumed within a
+    // transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select t from Task t where (:status is null or t.status = :status) order by t.id")
+    Stream<Task> streamAll(@Param("status") Task.Status status);
+
+    // Streams all Tasks associated with {userId} User in id order, only those with {status} Status if it is not null.
+    // Must be consumed within a transaction
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select t from Task t where t.userId = :userId and (:status is null or t.status = :status) order by t.id")
+    Stream<Task> streamByUserId(@Param("userId") Integer userId, @Param("status") Task.Status status);
+
+    // Returns a List of all Tasks with {status} Status
+    List<Task> findAllByStatus(Task.Status status);
+
+    // Returns a List of the Tasks with an id in {ids} that have {status} Status and are due at or before {time},
+    // locking them until the current transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Task> findAllByIdInAndStatusAndDueTimeLessThanEqual(Collection<Integer> ids, Task.Status status,
+                                                             LocalDateTime time);
+
+    // Returns a List of all Tasks with {status} Status that are due at or before {time}
+    List<Task> findAllByStatusAndDueTimeLessThanEqual(Task.Status status, LocalDateTime time);
+
+    // Returns a List of all Tasks with {status} Status that are due after {time}
+    List<Task> findAllByStatusAndDueTimeAfter(Task.Status status, LocalDateTime time);
+
+    // Returns a List of all Tasks that are due between {from} and {to} (inclusive)
+    List<Task> findAllByDueTimeBetween(LocalDateTime from, LocalDateTime to);
+
+    // Returns a List of all Tasks associated with {userId} User that are due between {from} and {to} (inclusive).
+    // H2 only costs the user_id prefix, which idx_task_user_id_id also has, so the index has to be named
+    @Query(value = "select id, user_id, name, description, due_time, status, version from task " +
+                   "use index (idx_task_user_id_due_time) where user_id = :userId and due_time between :from and :to",
+           nativeQuery = true)
+    List<Task> findAllByUserIdAndDueTimeBetween(@Param("userId") Integer userId, @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    // Returns the number of Tasks associated with {userId} User and the sums of their versions and ids, as a
+    // single row. Adding, changing or deleting any of the User's Tasks changes at least one of them
+    @Query("select count(t), coalesce(sum(t.version), 0), coalesce(sum(t.id), 0) from Task t where t.userId = :userId")
+    List<Object[]> summarizeVersions(@Param("userId") Integer userId);
+
+    // Returns the number of Tasks associated with {userId} User with each Status, as (status, count) rows
+    @Query("select t.status, count(t) from Task t where t.userId = :userId group by t.status")
+    List<Object[]> countByStatus(@Param("userId") Integer userId);
+
+    // Returns the number of Tasks of each User with each Status, as (userId, status, count) rows
+    @Query("select t.userId, t.status, count(t) from Task t group by t.userId, t.status")
+    List<Object[]> countByUserIdAndStatus();
+
+    // Returns the ids of the first {pageable} size Tasks with an id greater than {after}, in id order
+    @Query("select t.id from Task t where t.id > :after order by t.id")
+    List<Integer> findIdsAfter(@Param("after") Integer after, Pageable pageable);
+
+    // Returns a List of Tasks with {status} Status that are due at or before {time}, for Users in the {shardIds}
+    // shards when User ids are split into {shards} shards
+    @Query("select t from Task t where t.status = :status and t.dueTime <= :time " +
+           "and mod(t.userId, :shards) in :shardIds")
+    List<Task> findAllByStatusAndDueTimeLessThanEqualInShards(@Param("status") Task.Status status,
+                                                              @Param("time") LocalDateTime time,
+                                                              @Param("shards") Integer shards,
+                                                              @Param("shardIds") Collection<Integer> shardIds);
+
+    // Returns a List of Tasks with {status} Status that are due at or before {time}, with an id in the range
+    // (after, last], for Users in the {shardIds} shards when User ids are split into {shards} shards
+    @Query("select t from Task t where t.status = :status and t.dueTime <= :time and t.id > :after " +
+           "and t.id <= :last and mod(t.userId, :shards) in :shardIds")
+    List<Task> findAllByStatusAndDueTimeLessThanEqualInRange(@Param("status") Task.Status status,
+                                                             @Param("time") LocalDateTime time,
+                                                             @Param("after") Integer after,
+                                                             @Param("last") Integer last,
+                                                             @Param("shards") Integer shards,
+                                                             @Param("shardIds") Collection<Integer> shardIds);
+
+    // Returns a List of Tasks with {status} Status that are due after {time}, with an id in the range (after, last],
+    // for Users in the {shardIds} shards when User ids are split into {shards} shards
+    @Query("select t from Task t where t.status = :status and t.dueTime > :time and t.id > :after and t.id <= :last " +
+           "and mod(t.userId, :shards) in :shardIds")
+    List<Task> findAllByStatusAndDueTimeAfterInRange(@Param("status") Task.Status status,
+                                                     @Param("time") LocalDateTime time,
+                                                     @Param("after") Integer after, @Param("last") Integer last,
+                                                     @Param("shards") Integer shards,
+                                                     @Param("shardIds") Collection<Integer> shardIds);
+
+    // Sets the Status of Tasks with {from} Status that are due at or before {time} to {to}, for Tasks with an id in
+    // the range (after, last] of Users in the {shardIds} shards. Returns the number of Tasks updated
+    @Modifying
+    @Transactional
+    @Query("update Task t set t.status = :to, t.version = t.version + 1 " +
+           "where t.status = :from and t.dueTime <= :time and t.id > :after and t.id <= :last " +
+           "and mod(t.userId, :shards) in :shardIds")
+    int updateStatusDueAtOrBefore(@Param("from") Task.Status from, @Param("to") Task.Status to,
+                                  @Param("time") LocalDateTime time,
+                                  @Param("after") Integer after, @Param("last") Integer last,
+                                  @Param("shards") Integer shards,
+                                  @Param("shardIds") Collection<Integer> shardIds);
+
+    // Sets the Status of Tasks with {from} Status that are due after {time} to {to}, for Tasks with an id in the
+    // range (after, last] of Users in the {shardIds} shards. Returns the number of Tasks updated
+    @Modifying
+    @Transactional
+    @Query("update Task t set t.status = :to, t.version = t.version + 1 " +
+           "where t.status = :from and t.dueTime > :time and t.id > :after and t.id <= :last " +
+           "and mod(t.userId, :shards) in :shardIds")
+    int updateStatusDueAfter(@Param("from") Task.Status from, @Param("to") Task.Status to,
+                             @Param("time") LocalDateTime time,
+                             @Param("after") Integer after, @Param("last") Integer last,
+                             @Param("shards") Integer shards,
+                             @Param("shardIds") Collection<Integer> shardIds);
+
+    // Copies the Tasks with {status} Status that are due before {time} into task_archive, for Tasks with an id in
+    // the range (after, last] of Users in the {shardIds} shards. Returns the number of Tasks copied
+    @Modifying
+    @Transactional
+    @Query(value = "insert into task_archive " +
+                   "(id, user_id, name, description, due_time, status, version, archived_time) " +
+                   "select id, user_id, name, description, due_time, status, version, current_timestamp from task " +
+                   "where status = :status and due_time < :time and id > :after and id <= :last " +
+                   "and mod(user_id, :shards) in :shardIds",
+           nativeQuery = true)
+    int copyToArchive(@Param("status") String status, @Param("time") LocalDateTime time,
+                      @Param("after") Integer after, @Param("last") Integer last,
+                      @Param("shards") Integer shards, @Param("shardIds") Collection<Integer> shardIds);
+
+    // Deletes the Tasks with an id in the range (after, last] that have been copied into task_archive and not changed
+    // since. Returns the number of Tasks deleted
+    @Modifying
+    @Transactional
+    @Query(value = "delete from task where id > :after and id <= :last and exists " +
+                   "(select 1 from task_archive a where a.id = task.id and a.version = task.version)",
+           nativeQuery = true)
+    int deleteArchived(@Param("after") Integer after, @Param("last") Integer last);
+
+    // Deletes the copies in task_archive of Tasks with an id in the range (after, last] that are still in task,
+    // because they changed while being archived. Returns the number of copies deleted
+    @Modifying
+    @Transactional
+    @Query(value = "delete from task_archive where id > :after and id <= :last and exists " +
+                   "(select 1 from task t where t.id = task_archive.id)",
+           nativeQuery = true)
+    int deleteUnarchived(@Param("after") Integer after, @Param("last") Integer last);
+
+    // Returns the ids of the first {pageable} size archived Tasks with an id greater than {after}, in id order
+    @Query(value = "select id from task_archive where id > :after order by id limit :limit", nativeQuery = true)
+    List<Integer> findArchivedIdsAfter(@Param("after") Integer after, @Param("limit") int limit);
+
+    // Deletes the archived Tasks due before {time} with an id in the range (after, last] of Users in the {shardIds}
+    // shards. Returns the number of Tasks deleted
+    @Modifying
+    @Transactional
+    @Query(value = "delete from task_archive where due_time < :time and id > :after and id <= :last " +
+                   "and mod(user_id, :shards) in :shardIds",
+           nativeQuery = true)
+    int deleteArchivedDueBefore(@Param("time") LocalDateTime time,
+                                @Param("after") Integer after, @Param("last") Integer last,
+                                @Param("shards") Integer shards, @Param("shardIds") Collection<Integer> shardIds);
+
+    // Returns up to {limit} archived Tasks associated with {userId} User with an id greater than {after}, in id order.
+    // The Tasks are read only
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query(value = "select id, user_id, name, description, due_time, status, version from task_archive " +
+                   "use index (idx_task_archive_user_id_id) where user_id = :userId and id > :after " +
+                   "order by id limit :limit",
+           nativeQuery = true)
+    List<Task> findArchivedByUserIdAfter(@Param("userId") Integer userId, @Param("after") Integer after,
+                                         @Param("limit") int limit);
+
+    // Returns the archived {id} Task if it is associated with {userId} User. The Task is read only
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query(value = "select id, user_id, name, description, due_time, status, version from task_archive " +
+                   "where id = :id and user_id = :userId",
+           nativeQuery = true)
+    Optional<Task> findArchivedByIdAndUserId(@Param("id") Integer id, @Param("userId") Integer userId);
+
+    // Returns the number of archived Tasks associated with {userId} User and the sum of their ids, as a single row
+    @Query(value = "select count(*), coalesce(sum(id), 0) from task_archive where user_id = :userId",
+           nativeQuery = true)
+    List<Object[]> summarizeArchived(@Param("userId") Integer userId);
+
+    // Returns the number of archived Tasks of each User, as (userId, count) rows
+    @Query(value = "select user_id, count(*) from task_archive group by user_id", nativeQuery = true)
+    List<Object[]> countArchivedByUserId();
+
+    // Sets the Status of the {ids} Tasks that currently have {from} Status and are due at or before {time} to {to},
+    // returns the number of Tasks updated
+    @Modifying
+    @Transactional
+    @Query("update Task t set t.status = :to, t.version = t.version + 1 " +
+           "where t.id in :ids and t.status = :from and t.dueTime <= :time")
+    int updateStatus(@Param("ids") Collection<Integer> ids, @Param("from") Task.Status from,
+                     @Param("to") Task.Status to, @Param("time") LocalDateTime time);
 }
@@ -1,7 +1,12 @@
 package api.repository;
 
 import api.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 /**
  * Provides database operations on {@link User}s using JPA
@@ -10,4 +15,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @since 19 September 2018
  */
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    // Returns up to {pageable} size Users with an id greater than {after}, in id order
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Integer after, Pageable pageable);
+
+    // Returns the ids of the first {pageable} size Users with an id greater than {after}, in id order
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Integer> findIdsAfter(@Param("after") Integer after, Pageable pageable);
 }
@@ -0,0 +1,46 @@
+package api.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of results ordered by id, along with the cursor to request the next page with
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final Integer nextCursor;
+
+    private CursorPage(List<T> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Creates a page from the results of a query for up to limit + 1 items, the extra item only being used to tell
+     * whether there is a next page
+     *
+     * @param results - up to limit + 1 items ordered by id
+     * @param limit - the maximum number of items in the page
+     * @param idOf - returns the id of an item
+     * @return the page, with a next cursor if there are more items after it
+     */
+    public static <T> CursorPage<T> of(List<T> results, int limit, Function<T, Integer> idOf) {
+        if (results.size() > limit) {
+            List<T> items = results.subList(0, limit);
+            return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+        }
+        return new CursorPage<>(results, null);
+    }
+
+    public List<T> getItems() { return items; }
+
+    // the id to pass as the 'after' parameter for the next page, or null if this is the last page
+    @JsonProperty("next_cursor")
+    public Integer getNextCursor() { return nextCursor; }
+}
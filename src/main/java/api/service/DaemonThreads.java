@@ -0,0 +1,30 @@
+package api.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads of the application's executors, as numbered daemon threads so that they don't keep the JVM
+ * running on shutdown
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+final class DaemonThreads {
+
+    private DaemonThreads() {
+    }
+
+    /**
+     * @param name - prefix of the thread names, followed by a count
+     * @return ThreadFactory for daemon threads
+     */
+    static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the service calls of HTTP requests.
+ *
+ * When usertasker.async.enabled is true the calls run on a bounded pool of db-executor threads, sized separately from
+ * the Tomcat worker threads, so that request threads are not blocked on JDBC. Once all db-executor threads are busy
+ * and usertasker.async.queue-capacity calls are waiting, further calls are rejected with a
+ * {@link RejectedExecutionException} instead of being queued.
+ *
+ * Otherwise the calls run immediately on the request thread, and the already completed futures they return are
+ * written without async request processing by {@link api.controller.CompletedFutureReturnValueHandler}.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class DbExecutor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${usertasker.async.enabled:false}")
+    private boolean enabled;
+    // by default one thread per pooled connection
+    @Value("${usertasker.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int threads;
+    @Value("${usertasker.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ThreadFactory threadFactory = DaemonThreads.threadFactory("db-executor-");
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "db-executor", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return true if calls run on the db-executor threads, false if they run on the calling thread
+     */
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    /**
+     * Runs a service call
+     *
+     * @param call - the service call
+     * @param <T> - the result type of the call
+     * @return a CompletableFuture of the result of the call, already completed if the call ran on the calling thread
+     * @throws RejectedExecutionException if the db-executor threads and queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        if (executor == null) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                result.complete(call.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+}
@@ -0,0 +1,42 @@
+package api.service;
+
+import api.entity.Task;
+import api.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * The {@link VersionedCache}s of Users and Tasks by id, shared by the services that read and change them
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class EntityCaches {
+
+    private static final String USER_CACHE = "users";
+    private static final String TASK_CACHE = "tasks";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private VersionedCache<User> users;
+    private VersionedCache<Task> tasks;
+
+    @PostConstruct
+    public void init() {
+        users = new VersionedCache<>(cacheManager.getCache(USER_CACHE), User.class, User::getVersion);
+        tasks = new VersionedCache<>(cacheManager.getCache(TASK_CACHE), Task.class, Task::getVersion);
+    }
+
+    VersionedCache<User> users() {
+        return users;
+    }
+
+    VersionedCache<Task> tasks() {
+        return tasks;
+    }
+}
@@ -0,0 +1,78 @@
+package api.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Set of non-negative int ids stored as one bit per id. The id space is split into pages of 65536 ids that are only
+ * allocated once one of their ids is added, so ids allocated from a sequence take about one bit each (10M ids take
+ * about 1.3MB) however large they get. Safe to use from any number of threads without locking.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class IdBitmap {
+
+    // ids per page is 2^PAGE_BITS
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+
+    // a page for every 2^PAGE_BITS ids up to Integer.MAX_VALUE, null until one of its ids is added
+    private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(1 << (31 - PAGE_BITS));
+    private final AtomicInteger pageCount = new AtomicInteger();
+
+    /**
+     * @param id - the id to add, ignored if negative
+     */
+    public void add(int id) {
+        if (id < 0) {
+            return;
+        }
+        int index = id >>> PAGE_BITS;
+        AtomicLongArray page = pages.get(index);
+        if (page == null) {
+            AtomicLongArray created = new AtomicLongArray(WORDS_PER_PAGE);
+            if (pages.compareAndSet(index, null, created)) {
+                pageCount.incrementAndGet();
+                page = created;
+            } else {
+                page = pages.get(index);
+            }
+        }
+        page.getAndAccumulate((id & PAGE_MASK) >>> 6, 1L << id, (word, bit) -> word | bit);
+    }
+
+    /**
+     * @param id - the id to remove
+     */
+    public void remove(int id) {
+        AtomicLongArray page = pageOf(id);
+        if (page != null) {
+            page.getAndAccumulate((id & PAGE_MASK) >>> 6, ~(1L << id), (word, mask) -> word & mask);
+        }
+    }
+
+    /**
+     * @param id - the id to look for
+     * @return true if the id has been added and not removed since, false otherwise
+     */
+    public boolean contains(int id) {
+        AtomicLongArray page = pageOf(id);
+        // shifting a long only uses the low 6 bits of id
+        return page != null && (page.get((id & PAGE_MASK) >>> 6) & (1L << id)) != 0;
+    }
+
+    /**
+     * @return the approximate number of bytes of heap used by the bitmap
+     */
+    public long sizeInBytes() {
+        // 4 bytes per page reference (compressed oops) plus each allocated page's words and array header
+        return pages.length() * 4L + pageCount.get() * (WORDS_PER_PAGE * 8L + 16);
+    }
+
+    private AtomicLongArray pageOf(int id) {
+        return id < 0 ? null : pages.get(id >>> PAGE_BITS);
+    }
+}
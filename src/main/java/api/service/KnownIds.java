@@ -0,0 +1,102 @@
+package api.service;
+
+import api.entity.User;
+import api.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * The ids of the {@link User}s known to exist, kept in an {@link IdBitmap} so that checking that a User exists
+ * (done by every Task request) doesn't need a query for ids that are known.
+ *
+ * The ids are loaded when the application is ready and added to as Users are added on this node. An id that isn't
+ * known may still exist (e.g. added by another node, or before loading has finished) so must be checked in the
+ * database. Users can't be deleted so a known User id always exists.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class KnownIds {
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final IdBitmap userIds = new IdBitmap();
+
+    // number of ids loaded per query
+    private static final int LOAD_CHUNK_SIZE = 10000;
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @PostConstruct
+    public void initMetrics() {
+        Gauge.builder("ids.known.size", userIds, IdBitmap::sizeInBytes).tag("type", "user").baseUnit("bytes")
+                .description("Heap used by the ids known to exist").register(meterRegistry);
+    }
+
+    /**
+     * Loads the ids of every User in chunks of ids
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        int users = 0;
+        Integer after = 0;
+        List<Integer> ids;
+        while (!(ids = userRepo.findIdsAfter(after, PageRequest.of(0, LOAD_CHUNK_SIZE))).isEmpty()) {
+            ids.forEach(userIds::add);
+            users += ids.size();
+            after = ids.get(ids.size() - 1);
+        }
+
+        logger.info("Loaded {} User ids ({} bytes) in {}ms", users, userIds.sizeInBytes(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param id - the id of the User
+     * @return true if the User is known to exist, false if it must be checked in the database
+     */
+    public boolean containsUser(final Integer id) {
+        return userIds.contains(id);
+    }
+
+    /**
+     * Adds the id of a User that exists.
+     * If called inside a transaction the id is only added once the transaction commits.
+     *
+     * @param id - the id of the User
+     */
+    public void userAdded(final Integer id) {
+        afterCommit(() -> userIds.add(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
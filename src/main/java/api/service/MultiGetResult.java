@@ -0,0 +1,53 @@
+package api.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The items found for a list of requested ids, in the order they were requested, along with the ids that were not
+ * found
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class MultiGetResult<T> {
+
+    private final List<T> items;
+    private final List<Integer> missing;
+
+    private MultiGetResult(List<T> items, List<Integer> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    /**
+     * @param ids - the requested ids, duplicates are ignored
+     * @param found - the items found for the ids, in any order
+     * @param idOf - returns the id of an item
+     * @return the found items in the order of ids, and the ids with no item
+     */
+    public static <T> MultiGetResult<T> of(List<Integer> ids, Iterable<T> found, Function<T, Integer> idOf) {
+        Map<Integer, T> byId = new LinkedHashMap<>();
+        found.forEach(item -> byId.put(idOf.apply(item), item));
+
+        List<T> items = new ArrayList<>(byId.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            T item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missing);
+    }
+
+    public List<T> getItems() { return items; }
+
+    public List<Integer> getMissing() { return missing; }
+}
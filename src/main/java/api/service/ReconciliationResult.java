@@ -0,0 +1,31 @@
+package api.service;
+
+import api.entity.Task;
+
+/**
+ * The number of {@link Task}s whose status was changed by a status reconciliation
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class ReconciliationResult {
+
+    private final int completed;
+    private final int reopened;
+
+    public ReconciliationResult(int completed, int reopened) {
+        this.completed = completed;
+        this.reopened = reopened;
+    }
+
+    // number of Tasks changed from PENDING to DONE
+    public int getCompleted() { return completed; }
+
+    // number of Tasks changed from DONE to PENDING
+    public int getReopened() { return reopened; }
+
+    @Override
+    public String toString() {
+        return String.format("ReconciliationResult { completed = %d , reopened = %d }", completed, reopened);
+    }
+}
@@ -0,0 +1,220 @@
+package api.service;
+
+import api.entity.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the {@link Task}s between the nodes of a cluster sharing one database, so that each Task's status is only
+ * updated by one node.
+ *
+ * Tasks are split into shards by MOD(user_id, shards). Each shard has a lease row in task_shard_lease, a node only
+ * processes the Tasks of the shards it holds an unexpired lease on. Every node keeps a heartbeat in cluster_node and
+ * renews its leases on its own thread, claiming free or expired shards and releasing extra ones so that each live
+ * node holds an equal share. A node that stops renewing loses its shards to the other nodes once its leases expire,
+ * and stops using its own leases once they would have expired, even if it could not reach the database.
+ *
+ * When usertasker.cluster.enabled is false the single node owns every Task and the database is not used.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class ShardLeases {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${usertasker.cluster.enabled:false}")
+    private boolean enabled;
+    @Value("${usertasker.cluster.shards:64}")
+    private int shards;
+    @Value("${usertasker.cluster.lease-duration:15000}")
+    private long leaseMillis;
+    @Value("${usertasker.cluster.node-id:}")
+    private String nodeId;
+
+    // the shards this node holds leases on, and the System.nanoTime() that the leases expire at
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+    private volatile long validUntil;
+
+    private ScheduledExecutorService renewer;
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            // without clustering this node owns every Task
+            shards = 1;
+            ownedShards = Collections.singleton(0);
+        }
+    }
+
+    /**
+     * Claims this node's share of the shards and starts renewing the leases every third of the lease duration
+     */
+    public synchronized void start() {
+        if (!enabled || renewer != null) {
+            return;
+        }
+        if (nodeId.isEmpty()) {
+            nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        createLeases();
+        renew();
+        renewer = Executors.newSingleThreadScheduledExecutor(
+                DaemonThreads.threadFactory("shard-leases-"));
+        renewer.scheduleAtFixedRate(this::renew, leaseMillis / 3, leaseMillis / 3, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Releases this node's leases so that other nodes can claim them straight away
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (renewer == null) {
+            return;
+        }
+        renewer.shutdownNow();
+        ownedShards = Collections.emptySet();
+        try {
+            jdbcTemplate.update("UPDATE task_shard_lease SET owner = NULL, expires_at = NULL WHERE owner = ?", nodeId);
+            jdbcTemplate.update("DELETE FROM cluster_node WHERE node_id = ?", nodeId);
+        } catch (DataAccessException e) {
+            logger.warn("Could not release shard leases of node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * @return the number of shards Tasks are split into
+     */
+    public int getShardCount() {
+        return shards;
+    }
+
+    /**
+     * @return the shards this node currently holds leases on, empty if the leases have expired
+     */
+    public Set<Integer> getOwnedShards() {
+        if (enabled && System.nanoTime() - validUntil > 0) {
+            return Collections.emptySet();
+        }
+        return ownedShards;
+    }
+
+    /**
+     * @param userId - the id of a Task's User
+     * @return true if this node currently owns the shard of the User's Tasks
+     */
+    public boolean owns(Integer userId) {
+        return userId != null && getOwnedShards().contains(Math.floorMod(userId, shards));
+    }
+
+    private void createLeases() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_shard_lease", Integer.class);
+        if (existing != null && existing > 0 && existing != shards) {
+            throw new IllegalStateException("usertasker.cluster.shards is " + shards + " but the database has "
+                    + existing + " shards, every node must use the same number of shards");
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            try {
+                jdbcTemplate.update("INSERT INTO task_shard_lease (shard) SELECT ? FROM DUAL " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM task_shard_lease WHERE shard = ?)", shard, shard);
+            } catch (DuplicateKeyException e) {
+                // created by another node starting at the same time
+            }
+        }
+    }
+
+    private void renew() {
+        long start = System.nanoTime();
+        try {
+            heartbeat();
+            Integer nodes = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM cluster_node WHERE expires_at > CURRENT_TIMESTAMP", Integer.class);
+            int liveNodes = Math.max(1, nodes == null ? 0 : nodes);
+            // this node's share of the shards
+            int target = (shards + liveNodes - 1) / liveNodes;
+
+            jdbcTemplate.update("UPDATE task_shard_lease " +
+                    "SET expires_at = DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP) " +
+                    "WHERE owner = ? AND expires_at > CURRENT_TIMESTAMP", leaseMillis, nodeId);
+            TreeSet<Integer> owned = new TreeSet<>(jdbcTemplate.queryForList(
+                    "SELECT shard FROM task_shard_lease WHERE owner = ? AND expires_at > CURRENT_TIMESTAMP",
+                    Integer.class, nodeId));
+
+            // release shards beyond this node's share so that newly started nodes get theirs
+            while (owned.size() > target) {
+                Integer shard = owned.pollLast();
+                jdbcTemplate.update("UPDATE task_shard_lease SET owner = NULL, expires_at = NULL " +
+                        "WHERE shard = ? AND owner = ?", shard, nodeId);
+            }
+            if (owned.size() < target) {
+                List<Integer> free = jdbcTemplate.queryForList("SELECT shard FROM task_shard_lease " +
+                        "WHERE owner IS NULL OR expires_at <= CURRENT_TIMESTAMP ORDER BY shard", Integer.class);
+                for (Integer shard : free) {
+                    if (owned.size() >= target) {
+                        break;
+                    }
+                    // only one node can claim a shard, as the lease must still be free when it is updated
+                    int claimed = jdbcTemplate.update("UPDATE task_shard_lease SET owner = ?, " +
+                            "expires_at = DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP) " +
+                            "WHERE shard = ? AND (owner IS NULL OR expires_at <= CURRENT_TIMESTAMP)",
+                            nodeId, leaseMillis, shard);
+                    if (claimed > 0) {
+                        owned.add(shard);
+                    }
+                }
+            }
+
+            if (!owned.equals(ownedShards)) {
+                logger.info("Node {} owns shards {} of {}", nodeId, owned, shards);
+            }
+            ownedShards = Collections.unmodifiableSet(new TreeSet<>(owned));
+            // measured from before the leases were renewed, so this node stops before any other node can claim them
+            validUntil = start + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        } catch (DataAccessException e) {
+            logger.warn("Could not renew shard leases of node {}", nodeId, e);
+        }
+    }
+
+    private void heartbeat() {
+        int updated = jdbcTemplate.update("UPDATE cluster_node SET expires_at = DATEADD('MILLISECOND', ?, " +
+                "CURRENT_TIMESTAMP) WHERE node_id = ?", leaseMillis, nodeId);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO cluster_node (node_id, expires_at) " +
+                    "VALUES (?, DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP))", nodeId, leaseMillis);
+        }
+        // forget nodes that have been gone for a while
+        jdbcTemplate.update("DELETE FROM cluster_node " +
+                "WHERE expires_at < DATEADD('MILLISECOND', ?, CURRENT_TIMESTAMP)", -10 * leaseMillis);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
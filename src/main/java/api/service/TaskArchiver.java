@@ -0,0 +1,173 @@
+package api.service;
+
+import api.entity.Task;
+import api.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves DONE {@link Task}s that have been due for longer than usertasker.archive.after-days out of the task table into
+ * task_archive, so that the task table and its indexes only hold the Tasks that are still being worked on. Archived
+ * Tasks can no longer be changed, they are only returned by reads with include_archived.
+ *
+ * Tasks are moved in chunks of ids, each in its own short transaction, and a Task that changes while its chunk is
+ * being moved is left in the task table. When usertasker.archive.retention-days is set, archived Tasks that have been
+ * due for longer than that are deleted in the same way. Only the Tasks of the shards this node owns are touched.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class TaskArchiver {
+
+    @Autowired
+    private TaskRepository taskRepo;
+
+    @Autowired
+    private ShardLeases shardLeases;
+
+    @Autowired
+    private TaskCounters counters;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityCaches caches;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${usertasker.archive.enabled:true}")
+    private boolean enabled;
+    @Value("${usertasker.archive.after-days:30}")
+    private int afterDays;
+    @Value("${usertasker.archive.retention-days:0}")
+    private int retentionDays;
+    @Value("${usertasker.archive.chunk-size:500}")
+    private int chunkSize;
+
+    // cache of Tasks by id, shared with TaskServiceImpl
+    private VersionedCache<Task> taskCache;
+
+    private Counter archivedCounter;
+    private Counter purgedCounter;
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @PostConstruct
+    public void init() {
+        taskCache = caches.tasks();
+        archivedCounter = Counter.builder("tasks.archived")
+                .description("Tasks moved to task_archive").register(meterRegistry);
+        purgedCounter = Counter.builder("tasks.archive.purged")
+                .description("Archived Tasks deleted once past their retention").register(meterRegistry);
+    }
+
+    /**
+     * Periodically archives old DONE Tasks and deletes archived Tasks past their retention. Only runs if
+     * usertasker.archive.enabled is true.
+     */
+    @Scheduled(fixedRateString = "${usertasker.archive.rate:3600000}",
+               initialDelayString = "${usertasker.archive.rate:3600000}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveTasks();
+            if (retentionDays > 0) {
+                purgeArchive();
+            }
+        }
+    }
+
+    /**
+     * Moves the DONE Tasks of this node's shards that have been due for longer than usertasker.archive.after-days
+     * into task_archive
+     *
+     * @return the number of Tasks archived
+     */
+    public int archiveTasks() {
+        final LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        final PageRequest chunk = PageRequest.of(0, chunkSize);
+        final int shards = shardLeases.getShardCount();
+        final Set<Integer> owned = shardLeases.getOwnedShards();
+        int archived = 0;
+        if (owned.isEmpty()) {
+            return archived;
+        }
+
+        // keyset pagination over ids so each chunk only locks a bounded range of rows
+        Integer after = 0;
+        List<Integer> ids;
+        while (!(ids = taskRepo.findIdsAfter(after, chunk)).isEmpty()) {
+            final Integer from = after;
+            final Integer last = ids.get(ids.size() - 1);
+            Integer moved = transactionTemplate.execute(status -> {
+                int copied = taskRepo.copyToArchive(Task.Status.DONE.name(), cutoff, from, last, shards, owned);
+                if (copied == 0) {
+                    return 0;
+                }
+                int deleted = taskRepo.deleteArchived(from, last);
+                if (deleted < copied) {
+                    // Tasks changed since they were copied stay in task
+                    taskRepo.deleteUnarchived(from, last);
+                }
+                return deleted;
+            });
+            if (moved != null && moved > 0) {
+                // which of the chunk's Tasks were moved isn't known
+                ids.forEach(id -> taskCache.evict(id, null));
+                archived += moved;
+            }
+            after = last;
+        }
+
+        archivedCounter.increment(archived);
+        logger.info("Archived {} DONE Tasks due before {}", archived, cutoff);
+        return archived;
+    }
+
+    /**
+     * Deletes the archived Tasks of this node's shards that have been due for longer than
+     * usertasker.archive.retention-days
+     *
+     * @return the number of archived Tasks deleted
+     */
+    public int purgeArchive() {
+        final LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        final int shards = shardLeases.getShardCount();
+        final Set<Integer> owned = shardLeases.getOwnedShards();
+        int purged = 0;
+        if (owned.isEmpty()) {
+            return purged;
+        }
+
+        Integer after = 0;
+        List<Integer> ids;
+        while (!(ids = taskRepo.findArchivedIdsAfter(after, chunkSize)).isEmpty()) {
+            Integer last = ids.get(ids.size() - 1);
+            purged += taskRepo.deleteArchivedDueBefore(cutoff, after, last, shards, owned);
+            after = last;
+        }
+
+        if (purged > 0) {
+            // which Users' Tasks were deleted isn't known
+            counters.clear();
+        }
+        purgedCounter.increment(purged);
+        logger.info("Deleted {} archived Tasks due before {}", purged, cutoff);
+        return purged;
+    }
+}
@@ -0,0 +1,215 @@
+package api.service;
+
+import api.entity.Task;
+import api.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts of PENDING and DONE {@link Task}s per User, DONE including archived Tasks, so that a User's
+ * {@link TaskSummary} doesn't need their Tasks to be loaded or counted.
+ *
+ * A User's counts are loaded with two count queries the first time they are asked for, and from then on are kept up
+ * to date by the changes made on this node. Changes that can't be attributed to a User drop the affected counts to be
+ * loaded again, and loaded counts are periodically recounted to correct any drift (e.g. changes made by other nodes or
+ * directly in the database).
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class TaskCounters {
+
+    @Autowired
+    private TaskRepository taskRepo;
+
+    // the counts of each User whose counts have been loaded
+    private final ConcurrentMap<Integer, Counts> counts = new ConcurrentHashMap<>();
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    /**
+     * @param userId - the id of the User
+     * @return the number of the User's Tasks with each Status, loading them if they aren't already counted
+     */
+    public TaskSummary get(final Integer userId) {
+        Counts userCounts = counts.get(userId);
+        if (userCounts == null) {
+            // counted outside of the map so that other Users' counts aren't blocked by the query
+            Map<Task.Status, Long> statusCounts = countByStatus(taskRepo.countByStatus(userId));
+            statusCounts.merge(Task.Status.DONE, ((Number) taskRepo.summarizeArchived(userId).get(0)[0]).longValue(),
+                    Long::sum);
+            Counts loaded = new Counts();
+            loaded.reset(statusCounts, 0);
+            userCounts = counts.putIfAbsent(userId, loaded);
+            if (userCounts == null) {
+                userCounts = loaded;
+            }
+        }
+        return userCounts.summary();
+    }
+
+    /**
+     * Counts Tasks that have been added for a User.
+     * If called inside a transaction the Tasks are only counted once the transaction commits.
+     *
+     * @param userId - the id of the User
+     * @param tasks - the Tasks that were added
+     */
+    public void added(final Integer userId, final List<Task> tasks) {
+        long pending = tasks.stream().filter(t -> t.getStatus() == Task.Status.PENDING).count();
+        adjust(userId, pending, tasks.size() - pending);
+    }
+
+    /**
+     * Counts a Task of a User that has changed from one Status to another.
+     * If called inside a transaction the change is only counted once the transaction commits.
+     *
+     * @param userId - the id of the User
+     * @param from - the Status the Task had
+     * @param to - the Status the Task has now
+     */
+    public void changed(final Integer userId, final Task.Status from, final Task.Status to) {
+        if (from != to) {
+            adjust(userId, to == Task.Status.PENDING ? 1 : -1, to == Task.Status.DONE ? 1 : -1);
+        }
+    }
+
+    /**
+     * Stops counting a Task that has been deleted for a User.
+     * If called inside a transaction the Task is only removed once the transaction commits.
+     *
+     * @param userId - the id of the User
+     * @param status - the Status the Task had
+     */
+    public void removed(final Integer userId, final Task.Status status) {
+        adjust(userId, status == Task.Status.PENDING ? -1 : 0, status == Task.Status.DONE ? -1 : 0);
+    }
+
+    /**
+     * Drops a User's counts, to be loaded again when they are next asked for
+     *
+     * @param userId - the id of the User
+     */
+    public void invalidate(final Integer userId) {
+        afterCommit(() -> counts.remove(userId));
+    }
+
+    /**
+     * Drops every User's counts, to be loaded again when they are next asked for
+     */
+    public void clear() {
+        afterCommit(counts::clear);
+    }
+
+    /**
+     * Periodically recounts the Tasks of every User whose counts are loaded with two queries. Counts that change while
+     * being recounted are left as they are until the next recount.
+     */
+    @Scheduled(fixedRateString = "${usertasker.task.summary-recount-rate:600000}",
+               initialDelayString = "${usertasker.task.summary-recount-rate:600000}")
+    public void recount() {
+        if (counts.isEmpty()) {
+            return;
+        }
+        Map<Integer, Long> changes = new HashMap<>();
+        counts.forEach((userId, userCounts) -> changes.put(userId, userCounts.getChanges()));
+
+        Map<Integer, Map<Task.Status, Long>> statusCounts = new HashMap<>();
+        for (Object[] row : taskRepo.countByUserIdAndStatus()) {
+            statusCounts.computeIfAbsent((Integer) row[0], id -> new HashMap<>())
+                    .put((Task.Status) row[1], (Long) row[2]);
+        }
+        for (Object[] row : taskRepo.countArchivedByUserId()) {
+            statusCounts.computeIfAbsent((Integer) row[0], id -> new HashMap<>())
+                    .merge(Task.Status.DONE, ((Number) row[1]).longValue(), Long::sum);
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Integer, Long> entry : changes.entrySet()) {
+            Counts userCounts = counts.get(entry.getKey());
+            Map<Task.Status, Long> actual = statusCounts.getOrDefault(entry.getKey(), new HashMap<>());
+            if (userCounts != null && userCounts.reset(actual, entry.getValue())) {
+                corrected++;
+            }
+        }
+        logger.debug("Recounted Tasks of {} Users, {} corrected", changes.size(), corrected);
+    }
+
+    private void adjust(Integer userId, long pending, long done) {
+        afterCommit(() -> {
+            // Users whose counts aren't loaded are counted when they are asked for
+            Counts userCounts = counts.get(userId);
+            if (userCounts != null) {
+                userCounts.adjust(pending, done);
+            }
+        });
+    }
+
+    private static Map<Task.Status, Long> countByStatus(List<Object[]> rows) {
+        Map<Task.Status, Long> statusCounts = new HashMap<>();
+        rows.forEach(row -> statusCounts.put((Task.Status) row[0], (Long) row[1]));
+        return statusCounts;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The counts of one User's Tasks, along with the number of changes made to them
+     */
+    private static final class Counts {
+
+        private long pending;
+        private long done;
+        private long changes;
+
+        private synchronized void adjust(long pendingDelta, long doneDelta) {
+            pending += pendingDelta;
+            done += doneDelta;
+            changes++;
+        }
+
+        // sets the counts if there have been no changes since expectedChanges, returns true if they were different
+        private synchronized boolean reset(Map<Task.Status, Long> statusCounts, long expectedChanges) {
+            if (changes != expectedChanges) {
+                return false;
+            }
+            long actualPending = statusCounts.getOrDefault(Task.Status.PENDING, 0L);
+            long actualDone = statusCounts.getOrDefault(Task.Status.DONE, 0L);
+            boolean different = pending != actualPending || done != actualDone;
+            pending = actualPending;
+            done = actualDone;
+            return different;
+        }
+
+        private synchronized long getChanges() {
+            return changes;
+        }
+
+        private synchronized TaskSummary summary() {
+            return new TaskSummary(pending, done);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package api.service;
+
+import api.entity.Task;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Priority queue of PENDING {@link Task}s ordered by their date_time, so that only Tasks that have actually become
+ * due are handed out instead of scanning every Task.
+ *
+ * Each Task has at most one entry, rescheduling or cancelling a Task removes its previous entry so the queue only
+ * grows with the number of scheduled Tasks.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class TaskDueQueue {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // signalled when an entry is added to the head of the queue
+    private final Condition headChanged = lock.newCondition();
+
+    // entries ordered by due time, and the entry of each scheduled Task id, both guarded by lock
+    private final NavigableSet<DueTask> queue = new TreeSet<>();
+    private final Map<Integer, DueTask> scheduled = new HashMap<>();
+
+    // how long after their due time Tasks are handed out
+    private final Timer dueLag;
+
+    public TaskDueQueue(MeterRegistry meterRegistry) {
+        dueLag = Timer.builder("tasks.due.lag")
+                .description("Time between a Task becoming due and it being handed out to be updated")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("tasks.due.queued", this, TaskDueQueue::size)
+                .description("Tasks waiting on the due queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules a Task to become due at dueTime, replacing any previous schedule for the Task.
+     * If called inside a transaction the Task is only scheduled once the transaction commits.
+     *
+     * @param taskId - the id of the Task
+     * @param dueTime - the date and time that the Task becomes due
+     */
+    public void schedule(final Integer taskId, final LocalDateTime dueTime) {
+        afterCommit(() -> {
+            DueTask dueTask = new DueTask(taskId, dueTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            lock.lock();
+            try {
+                DueTask current = scheduled.get(taskId);
+                if (current != null) {
+                    if (current.dueMillis == dueTask.dueMillis) {
+                        // already queued for the same time
+                        return;
+                    }
+                    queue.remove(current);
+                }
+                scheduled.put(taskId, dueTask);
+                queue.add(dueTask);
+                if (queue.first() == dueTask) {
+                    headChanged.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes any schedule for a Task.
+     * If called inside a transaction the Task is only removed once the transaction commits.
+     *
+     * @param taskId - the id of the Task
+     */
+    public void cancel(final Integer taskId) {
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                DueTask current = scheduled.remove(taskId);
+                if (current != null) {
+                    queue.remove(current);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Blocks until at least one Task is due
+     *
+     * @return List of the ids of all Tasks that are due
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<Integer> takeDue() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (queue.isEmpty()) {
+                    headChanged.await();
+                    continue;
+                }
+                long delay = queue.first().getDelay(TimeUnit.MILLISECONDS);
+                if (delay <= 0) {
+                    return removeDue();
+                }
+                // wake up early if an earlier Task is scheduled in the meantime
+                headChanged.await(delay, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all Tasks that are currently due without blocking
+     *
+     * @return List of the ids of all Tasks that are due, empty if there are none
+     */
+    public List<Integer> pollDue() {
+        lock.lock();
+        try {
+            return removeDue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of Tasks currently scheduled
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return scheduled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all scheduled Tasks
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            scheduled.clear();
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // removes the entries that are due from the head of the queue, must be called holding lock
+    private List<Integer> removeDue() {
+        List<Integer> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.first().getDelay(TimeUnit.MILLISECONDS) <= 0) {
+            DueTask dueTask = queue.pollFirst();
+            scheduled.remove(dueTask.taskId);
+            due.add(dueTask.taskId);
+            dueLag.record(-dueTask.getDelay(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        }
+        return due;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Queue entry for a Task that becomes due at dueMillis (epoch milliseconds), ordered by dueMillis then taskId
+     */
+    private static final class DueTask implements Comparable<DueTask> {
+
+        private final Integer taskId;
+        private final long dueMillis;
+
+        private DueTask(Integer taskId, long dueMillis) {
+            this.taskId = taskId;
+            this.dueMillis = dueMillis;
+        }
+
+        private long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(DueTask other) {
+            int byTime = Long.compare(dueMillis, other.dueMillis);
+            return byTime != 0 ? byTime : taskId.compareTo(other.taskId);
+        }
+    }
+}
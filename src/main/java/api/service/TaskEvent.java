@@ -0,0 +1,73 @@
+package api.service;
+
+import api.entity.Task;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A change of a User's {@link Task}s, sent to the User as a Server-Sent Event. Either a change of a Task's status
+ * ("status" events), or a batch of Tasks having been added ("added" events, with the number of Tasks added with each
+ * Status rather than an event per Task)
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEvent {
+
+    // SSE event names
+    public static final String STATUS = "status";
+    public static final String ADDED = "added";
+
+    private final long id;
+    private final Integer userId;
+    private final String name;
+    private final Integer taskId;
+    private final Task.Status status;
+    private final TaskSummary added;
+
+    public TaskEvent(long id, Integer userId, Integer taskId, Task.Status status) {
+        this(id, userId, STATUS, taskId, status, null);
+    }
+
+    public TaskEvent(long id, Integer userId, TaskSummary added) {
+        this(id, userId, ADDED, null, null, added);
+    }
+
+    private TaskEvent(long id, Integer userId, String name, Integer taskId, Task.Status status, TaskSummary added) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.taskId = taskId;
+        this.status = status;
+        this.added = added;
+    }
+
+    // sent as the SSE event id rather than in the data
+    @JsonIgnore
+    public long getId() { return id; }
+
+    @JsonIgnore
+    public Integer getUserId() { return userId; }
+
+    // sent as the SSE event name rather than in the data
+    @JsonIgnore
+    public String getName() { return name; }
+
+    @JsonProperty("task_id")
+    public Integer getTaskId() { return taskId; }
+
+    public Task.Status getStatus() { return status; }
+
+    // the number of Tasks added with each Status, for added events
+    @JsonUnwrapped
+    public TaskSummary getAdded() { return added; }
+
+    @Override
+    public String toString() {
+        return "TaskEvent { ID = " + id + " , UserID = " + userId + " , Name = " + name + " , TaskID = " + taskId
+                + " , Status = " + status + " , Added = " + added + " }";
+    }
+}
@@ -0,0 +1,245 @@
+package api.service;
+
+import api.entity.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Sends {@link TaskEvent}s to the Users subscribed to them as Server-Sent Events.
+ *
+ * Each subscriber has a bounded buffer of events that are sent to it by the task-events threads, so that a slow
+ * subscriber never blocks the code publishing events. A subscriber whose buffer is full is disconnected, and can
+ * resume from the last event it received with the Last-Event-ID header.
+ *
+ * The most recent events are kept in a bounded replay ring for resuming. Event ids start from the time the
+ * application started, so ids from before a restart are older than every event in the ring.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@Component
+public class TaskEventPublisher {
+
+    @Value("${usertasker.events.buffer-size:256}")
+    private int bufferSize;
+    @Value("${usertasker.events.replay-size:10000}")
+    private int replaySize;
+    @Value("${usertasker.events.sender-threads:4}")
+    private int senderThreads;
+
+    // guards nextId, replay and the order events are buffered in
+    private final Object lock = new Object();
+    private long nextId = System.currentTimeMillis() * 1000;
+    private final ArrayDeque<TaskEvent> replay = new ArrayDeque<>();
+
+    // subscribers by User id
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @PostConstruct
+    public void start() {
+        sender = Executors.newFixedThreadPool(senderThreads,
+                DaemonThreads.threadFactory("task-events-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    /**
+     * Subscribes to the events of a User's Tasks
+     *
+     * @param userId - the id of the User
+     * @param lastEventId - the id of the last event the subscriber received, to resume after, or null
+     * @return the SseEmitter that the events are sent to
+     */
+    public SseEmitter subscribe(final Integer userId, final Long lastEventId) {
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter());
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null) {
+                List<TaskEvent> missed = new ArrayList<>();
+                for (TaskEvent event : replay) {
+                    if (event.getId() > lastEventId && event.getUserId().equals(userId)) {
+                        missed.add(event);
+                    }
+                }
+                // only the most recent events are resent if more were missed than fit in the buffer
+                missed.subList(Math.max(0, missed.size() - bufferSize), missed.size()).forEach(subscriber::offer);
+            }
+            subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publishes the current status of a Task. If called inside a transaction the event is only published once the
+     * transaction commits.
+     *
+     * @param task - the Task whose status changed
+     */
+    public void publish(final Task task) {
+        publish(task.getUserId(), task.getId(), task.getStatus());
+    }
+
+    /**
+     * Publishes the status of a Task. If called inside a transaction the event is only published once the
+     * transaction commits.
+     *
+     * @param userId - the id of the Task's User
+     * @param taskId - the id of the Task
+     * @param status - the Task's new status
+     */
+    public void publish(final Integer userId, final Integer taskId, final Task.Status status) {
+        afterCommit(() -> distribute(userId, id -> new TaskEvent(id, userId, taskId, status)));
+    }
+
+    /**
+     * Publishes a single event for a batch of a User's Tasks that were added, rather than one per Task, so that bulk
+     * imports don't overflow the subscribers' buffers. If called inside a transaction the event is only published
+     * once the transaction commits.
+     *
+     * @param userId - the id of the User
+     * @param tasks - the Tasks that were added
+     */
+    public void publishAdded(final Integer userId, final List<Task> tasks) {
+        long pending = tasks.stream().filter(t -> t.getStatus() == Task.Status.PENDING).count();
+        TaskSummary added = new TaskSummary(pending, tasks.size() - pending);
+        afterCommit(() -> distribute(userId, id -> new TaskEvent(id, userId, added)));
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // gives the next event id to newEvent, keeps the event for replay and buffers it for the User's subscribers
+    private void distribute(Integer userId, LongFunction<TaskEvent> newEvent) {
+        synchronized (lock) {
+            TaskEvent event = newEvent.apply(nextId++);
+            if (replay.size() == replaySize) {
+                replay.removeFirst();
+            }
+            replay.addLast(event);
+
+            Set<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers != null) {
+                for (Subscriber subscriber : userSubscribers) {
+                    if (!subscriber.offer(event)) {
+                        logger.info("Disconnecting slow Task event subscriber for User (@{})", userId);
+                        subscriber.disconnect();
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId,
+                (id, userSubscribers) -> userSubscribers.remove(subscriber) && userSubscribers.isEmpty()
+                        ? null : userSubscribers);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A connected SseEmitter and the events waiting to be sent to it
+     */
+    private final class Subscriber {
+
+        private final Integer userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // whether a task-events thread is sending the buffered events
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(Integer userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return false if the buffer is full
+         */
+        private boolean offer(TaskEvent event) {
+            if (!buffer.offer(event)) {
+                return false;
+            }
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::send);
+            }
+            return true;
+        }
+
+        private void send() {
+            List<TaskEvent> events = new ArrayList<>();
+            do {
+                events.clear();
+                buffer.drainTo(events);
+                try {
+                    for (TaskEvent event : events) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.getId()))
+                                .name(event.getName())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // the subscriber has disconnected or already been completed
+                    remove(this);
+                    buffer.clear();
+                    return;
+                }
+                sending.set(false);
+                // send any events buffered since draining, unless another thread has started sending them
+            } while (!buffer.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private void disconnect() {
+            remove(this);
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package api.service;
 
 import api.entity.Task;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,29 +25,52 @@ public interface TaskService {
      */
     Task addTask(Integer user_id, Task task);
 
+    /**
+     * Adds a batch of Tasks for a User. The date_time of every Task is validated before any are added
+     * @param user_id - the id of the User
+     * @param tasks - the tasks to add
+     * @return the Tasks that were added
+     * @throws IllegalArgumentException if any Task has a missing or invalid date_time
+     */
+    List<Task> addTasks(Integer user_id, List<Task> tasks) throws IllegalArgumentException;
+
     /**
      * Updates a Task for a User
      * @param user_id - the id of the User
      * @param task_id - the id of the Task
      * @param newTask - the Task containing the values to update
+     * @param version - the version the Task must have to be updated, or null to update any version
      * @return Optional containing the updated Task if successful, Optional.empty() otherwise
+     * @throws OptimisticLockingFailureException if the Task does not have the version or was changed concurrently
      */
-    Optional<Task> updateTask(Integer user_id, Integer task_id, Task newTask);
+    Optional<Task> updateTask(Integer user_id, Integer task_id, Task newTask, Long version)
+            throws OptimisticLockingFailureException;
 
     /**
-     * Deletes a Task
-     * @param id - the id of the Task to delete
-     * @return Optional containing the deleted Task if successful, Optional.empty() otherwise
+     * Deletes a Task for a User
+     * @param user_id - the id of the User
+     * @param task_id - the id of the Task to delete
+     * @return true if the Task was deleted, false if there is no such Task for the User
      */
-    Optional<Task> deleteTaskById(Integer id);
+    boolean deleteTask(Integer user_id, Integer task_id);
 
     /**
      * Retrieves a Task's information for a User
      * @param user_id - the id of the User
      * @param task_id - the id of the Task
+     * @param include_archived - whether to also look for the Task in the archive
      * @return Optional containing the Task if successful, Optional.empty() otherwise
      */
-    Optional<Task> getTaskInfo(Integer user_id, Integer task_id);
+    Optional<Task> getTaskInfo(Integer user_id, Integer task_id, boolean include_archived);
+
+    /**
+     * Retrieves a list of Tasks for a User with one query
+     * @param user_id - the id of the User
+     * @param task_ids - the ids of the Tasks
+     * @return MultiGetResult containing the User's Tasks in the order of task_ids, and the ids of the Tasks that
+     * don't exist for the User
+     */
+    MultiGetResult<Task> getTasksForUser(Integer user_id, List<Integer> task_ids);
 
     /**
      * Retrieves a List of Tasks for a User
@@ -52,12 +79,88 @@ public interface TaskService {
      */
     List<Task> getAllTasksForUser(Integer user_id);
 
+    /**
+     * Retrieves a version of all of a User's Tasks, without retrieving the Tasks
+     * @param user_id - the id of the User
+     * @param include_archived - whether the version also covers the User's archived Tasks
+     * @return a version that changes whenever any of the User's Tasks is added, changed, archived or deleted
+     */
+    String getTasksVersion(Integer user_id, boolean include_archived);
+
+    /**
+     * Retrieves the number of a User's Tasks with each Status, without retrieving the Tasks
+     * @param user_id - the id of the User
+     * @return TaskSummary containing the number of PENDING and DONE Tasks, DONE including archived Tasks
+     */
+    TaskSummary getTaskSummary(Integer user_id);
+
+    /**
+     * Retrieves a page of Tasks for a User, ordered by id
+     * @param user_id - the id of the User
+     * @param after - only Tasks with an id greater than this are returned
+     * @param limit - the maximum number of Tasks to return
+     * @param include_archived - whether to include the User's archived Tasks
+     * @return CursorPage containing the Tasks and the cursor for the next page
+     */
+    CursorPage<Task> getTasksForUser(Integer user_id, Integer after, int limit, boolean include_archived);
+
+    /**
+     * Retrieves a List of Tasks for a User with a date_time in the given range
+     * @param user_id - the id of the User
+     * @param from - the start of the range (inclusive)
+     * @param to - the end of the range (inclusive)
+     * @return List containing the User's tasks that are due within the range
+     */
+    List<Task> getTasksForUserBetween(Integer user_id, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves a List of all Tasks with a date_time in the given range
+     * @param from - the start of the range (inclusive)
+     * @param to - the end of the range (inclusive)
+     * @return List containing the tasks that are due within the range
+     */
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves a List of all Tasks with a Status that are due at or before a date_time
+     * @param status - the Status of the Tasks
+     * @param time - the date_time the Tasks are due by
+     * @return List containing the tasks with the Status that are due by the date_time
+     */
+    List<Task> getTasksDueBy(Task.Status status, LocalDateTime time);
+
     /**
      * Retrieves a List of all Tasks
      * @return - List containing all Tasks
      */
     List<Task> getAllTasks();
 
+    /**
+     * Retrieves a page of all Tasks, ordered by id
+     * @param after - only Tasks with an id greater than this are returned
+     * @param limit - the maximum number of Tasks to return
+     * @return CursorPage containing the Tasks and the cursor for the next page
+     */
+    CursorPage<Task> getTasks(Integer after, int limit);
+
+    /**
+     * Writes Tasks to out as newline delimited JSON, one Task per line in id order, without holding all of the
+     * Tasks in memory
+     * @param user_id - the id of the User to export Tasks for, or null for all Users
+     * @param status - the Status of the Tasks to export, or null for any Status
+     * @param out - the stream to write the Tasks to, which is flushed but not closed
+     * @return the number of Tasks written
+     * @throws IOException if the Tasks could not be written to out
+     */
+    long exportTasks(Integer user_id, Task.Status status, OutputStream out) throws IOException;
+
+    /**
+     * Sets all PENDING Tasks that are due to DONE and all DONE Tasks that are not yet due back to PENDING, working
+     * through the Tasks in bounded chunks of ids
+     * @return the number of Tasks that were changed
+     */
+    ReconciliationResult reconcileStatuses();
+
     /**
      * Used to check if a Task with the given id exists
      * @param id - the id of the Task to check for
@@ -2,20 +2,46 @@ package api.service;
 
 import api.entity.Task;
 import api.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Implementation of {@link TaskService} that performs operations on {@link Task}s
@@ -30,10 +56,76 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private TaskRepository taskRepo;
 
+    @Autowired
+    private TaskDueQueue dueQueue;
+
+    @Autowired
+    private TaskEventPublisher events;
+
+    @Autowired
+    private ShardLeases shardLeases;
+
+    @Autowired
+    private TaskCounters counters;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityCaches caches;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // cache of Tasks by id
+    private VersionedCache<Task> taskCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // metrics for checkTasks and status reconciliation
+    private Timer checkTimer;
+    private Counter checkScanned;
+    private Counter checkFlipped;
+    private Timer reconcileTimer;
+    private Timer reconcileLag;
+    private Counter reconcileScanned;
+    private Counter reconcileCompleted;
+    private Counter reconcileReopened;
+
+    // when the last periodic reconciliation started, to measure how late the next one is
+    private long lastReconcileStart;
+
     private Logger logger = LoggerFactory.getLogger("TaskService");
 
-    // pattern for date_time strings
-    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    // delay before retrying Tasks that could not be updated when they became due
+    private static final long RETRY_DELAY_SECONDS = 5;
+
+    // number of Tasks inserted per JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    // number of exported Tasks after which the persistence context is cleared
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    // whether the periodic status reconciliation runs, and how many Tasks it updates per transaction
+    @Value("${usertasker.task.reconcile-enabled:true}")
+    private boolean reconcileEnabled;
+    @Value("${usertasker.task.reconcile-chunk-size:1000}")
+    private int reconcileChunkSize;
+    @Value("${usertasker.task.reconcile-rate:300000}")
+    private long reconcileRate;
+    // whether Tasks are updated by the due Task thread as they become due, and how often the due queue is filled
+    @Value("${usertasker.task.due-enabled:true}")
+    private boolean dueEnabled;
+    @Value("${usertasker.task.lookahead-rate:5000}")
+    private long lookaheadRate;
+
+    // thread that waits on the due queue and updates Tasks as they become due
+    private Thread dueTaskThread;
 
     @Override
     public Task addTask(final Integer user_id, Task task) throws IllegalArgumentException, DateTimeParseException {
@@ -41,7 +133,7 @@ public class TaskServiceImpl implements TaskService {
         Objects.requireNonNull(task);
         String date_time = task.getDateTime();
         // make sure that the date_time from the request is in the correct format to avoid parsing errors later on
-        logger.debug("Checking date_time " + date_time);
+        logger.debug("Checking date_time {}", date_time);
         if (date_time == null) {
             throw new IllegalArgumentException("date_time must not be null");
         }
@@ -49,74 +141,239 @@ public class TaskServiceImpl implements TaskService {
         LocalDateTime now = LocalDateTime.now();
         // throws IllegalArgumentException or DateTimeParse exception if date_time is not correct
         // better to check the String with a giant regex?
-        LocalDateTime taskTime = LocalDateTime.parse(date_time, DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+        LocalDateTime taskTime = Task.parseDateTime(date_time);
 
         task.setUserId(user_id);
+        task.setDueTime(taskTime);
         // set Task status depending on date_time
         task.setStatus((now.compareTo(taskTime) >= 0) ? Task.Status.DONE : Task.Status.PENDING);
-        taskRepo.saveAndFlush(task);
-        logger.info("Added Task " + task);
+        taskRepo.save(task);
+        schedule(task, taskTime);
+        counters.added(user_id, Collections.singletonList(task));
+        events.publish(task);
+        logger.info("Added Task {}", task);
         return task;
     }
 
     @Override
     @Transactional
-    public Optional<Task> updateTask(final Integer user_id, final Integer id, Task newTask) {
+    public List<Task> addTasks(final Integer user_id, List<Task> tasks) throws IllegalArgumentException {
+
+        Objects.requireNonNull(tasks);
+        // check every date_time before adding anything so that a bad Task doesn't leave a partial batch
+        List<Integer> invalid = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            try {
+                task.setDueTime(Task.parseDateTime(Objects.requireNonNull(task.getDateTime())));
+            } catch (NullPointerException | DateTimeParseException e) {
+                invalid.add(i);
+            }
+        }
+        if (!invalid.isEmpty()) {
+            throw new IllegalArgumentException("Invalid date_time for Tasks at indexes " + invalid);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            task.setUserId(user_id);
+            task.setStatus((now.compareTo(task.getDueTime()) >= 0) ? Task.Status.DONE : Task.Status.PENDING);
+            entityManager.persist(task);
+            schedule(task, task.getDueTime());
+            if ((i + 1) % batchSize == 0) {
+                // send the batch of inserts and stop the persistence context growing with the batch
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        counters.added(user_id, tasks);
+        events.publishAdded(user_id, tasks);
+        logger.info("Added {} Tasks for User (@{})", tasks.size(), user_id);
+        return tasks;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Task> updateTask(final Integer user_id, final Integer id, Task newTask, final Long version)
+            throws DateTimeParseException {
+
+        String date_time = newTask.getDateTime();
+        if (date_time != null && !date_time.equals("null")) {
+            // throws DateTimeParseException if date_time is not correct
+            newTask.setDueTime(Task.parseDateTime(date_time));
+        }
 
-        Optional<Task> task = taskRepo.findById(id);
+        // only update the Task if it is associated with {user_id} User
+        Optional<Task> task = taskRepo.findByIdAndUserId(id, user_id);
         if (task.isPresent()) {
             Task currentTask = task.get();
-            if (currentTask.getUserId().equals(user_id)) {
-                // only update the Task if it is associated with {user_id} User
-                logger.info("Updating Task: " + currentTask);
-                currentTask.updateWith(newTask);
-                logger.info("-> " + currentTask);
-                return Optional.of(currentTask);
+            if (version != null && !version.equals(currentTask.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Task.class, id);
             }
+            logger.info("Updating Task: {}", currentTask);
+            Task.Status previousStatus = currentTask.getStatus();
+            Integer previousUserId = currentTask.getUserId();
+            // the version is only incremented when the change is flushed
+            evictTask(id, currentTask.getVersion());
+            currentTask.updateWith(newTask);
+            // status always follows date_time
+            LocalDateTime taskTime = currentTask.getDueTime();
+            if (taskTime != null) {
+                currentTask.setStatus(LocalDateTime.now().compareTo(taskTime) >= 0
+                        ? Task.Status.DONE : Task.Status.PENDING);
+                schedule(currentTask, taskTime);
+            }
+            if (!currentTask.getUserId().equals(previousUserId)) {
+                // moved to another User, so it is counted for that User instead
+                counters.removed(previousUserId, previousStatus);
+                counters.added(currentTask.getUserId(), Collections.singletonList(currentTask));
+            } else {
+                counters.changed(user_id, previousStatus, currentTask.getStatus());
+            }
+            if (currentTask.getStatus() != previousStatus) {
+                events.publish(currentTask);
+            }
+            logger.info("-> {}", currentTask);
+            return Optional.of(currentTask);
         }
-        logger.info("Could not find Task (@" + id +") to update for User (@" + user_id + ")");
+        logger.info("Could not find Task (@{}) to update for User (@{})", id, user_id);
         return Optional.empty();
     }
 
     @Override
-    public Optional<Task> deleteTaskById(final Integer id) {
-        Optional<Task> task = taskRepo.findById(id);
-        if (task.isPresent()) {
-            taskRepo.deleteById(id);
-            logger.info("Deleted Task: " + task.get());
-            return task;
+    public boolean deleteTask(final Integer user_id, final Integer id) {
+        // only delete the Task if it is associated with {user_id} User
+        if (taskRepo.deleteByIdAndUserId(id, user_id) > 0) {
+            dueQueue.cancel(id);
+            evictTask(id, null);
+            // the deleted Task's Status isn't known, so the User's counts are loaded again when next asked for
+            counters.invalidate(user_id);
+            logger.info("Deleted Task (@{}) for User (@{})", id, user_id);
+            return true;
         }
-        logger.info("Could not find Task (@" + id + ") to delete");
-        return Optional.empty();
+        logger.info("Could not find Task (@{}) to delete for User (@{})", id, user_id);
+        return false;
     }
 
     @Override
-    public Optional<Task> getTaskInfo(final Integer user_id, final Integer id) {
+    public Optional<Task> getTaskInfo(final Integer user_id, final Integer id, final boolean include_archived) {
 
-        Optional<Task> task = taskRepo.findById(id);
-        if (task.isPresent()) {
-            Task result = task.get();
-            if (result.getUserId().equals(user_id)) {
-                // only return Task for {user_id} User
-                logger.info("Retrieved Task: " + task.get());
-                return task;
+        Task result = taskCache.get(id);
+        if (result == null) {
+            // only load the Task if it is associated with {user_id} User
+            Optional<Task> task = taskRepo.findByIdAndUserId(id, user_id);
+            if (task.isPresent()) {
+                result = task.get();
+                taskCache.put(id, result);
+            } else if (include_archived) {
+                // archived Tasks aren't cached, they are only read occasionally
+                result = taskRepo.findArchivedByIdAndUserId(id, user_id).orElse(null);
             }
         }
-        logger.info("Could not find Task (@" + id + ") for User (@" + user_id + ")");
+        if (result != null && result.getUserId().equals(user_id)) {
+            // only return Task for {user_id} User
+            logger.info("Retrieved Task: {}", result);
+            return Optional.of(result);
+        }
+        logger.info("Could not find Task (@{}) for User (@{})", id, user_id);
         return Optional.empty();
     }
 
+    @Override
+    public MultiGetResult<Task> getTasksForUser(final Integer user_id, final List<Integer> task_ids) {
+        // only load Tasks associated with {user_id} User
+        MultiGetResult<Task> tasks = MultiGetResult.of(task_ids,
+                taskRepo.findAllByUserIdAndIdIn(user_id, task_ids), Task::getId);
+        logger.info("Retrieved {} of {} Tasks for User (@{})", tasks.getItems().size(), task_ids.size(), user_id);
+        return tasks;
+    }
+
     @Override
     public List<Task> getAllTasksForUser(final Integer user_id) {
         List<Task> tasks = taskRepo.findAllByUserId(user_id);
-        logger.info("All Tasks for User (@" + user_id + "): " + tasks);
+        logger.info("All Tasks for User (@{}): {}", user_id, tasks.size());
+        return tasks;
+    }
+
+    @Override
+    public String getTasksVersion(final Integer user_id, final boolean include_archived) {
+        Object[] summary = taskRepo.summarizeVersions(user_id).get(0);
+        // count-versions-ids
+        String version = summary[0] + "-" + summary[1] + "-" + summary[2];
+        if (include_archived) {
+            // archived Tasks can't change, only be added or deleted
+            Object[] archived = taskRepo.summarizeArchived(user_id).get(0);
+            version += "-" + archived[0] + "-" + archived[1];
+        }
+        return version;
+    }
+
+    @Override
+    public TaskSummary getTaskSummary(final Integer user_id) {
+        TaskSummary summary = counters.get(user_id);
+        logger.debug("Task summary for User (@{}): {}", user_id, summary);
+        return summary;
+    }
+
+    @Override
+    public CursorPage<Task> getTasksForUser(final Integer user_id, final Integer after, final int limit,
+                                            final boolean include_archived) {
+        // fetch one extra Task to find out if there is a next page
+        List<Task> results = taskRepo.findByUserIdAfter(user_id, after, limit + 1);
+        if (include_archived) {
+            // merge the first limit + 1 Tasks of each table by id, archived Tasks keep the ids they had in task
+            List<Task> archived = taskRepo.findArchivedByUserIdAfter(user_id, after, limit + 1);
+            List<Task> merged = new ArrayList<>(results.size() + archived.size());
+            merged.addAll(results);
+            merged.addAll(archived);
+            merged.sort(Comparator.comparing(Task::getId));
+            results = merged.subList(0, Math.min(merged.size(), limit + 1));
+        }
+        CursorPage<Task> tasks = CursorPage.of(results, limit, Task::getId);
+        logger.info("Tasks for User (@{}) after (@{}): {}", user_id, after, tasks.getItems().size());
+        return tasks;
+    }
+
+    @Override
+    public CursorPage<Task> getTasks(final Integer after, final int limit) {
+        // fetch one extra Task to find out if there is a next page
+        CursorPage<Task> tasks = CursorPage.of(
+                taskRepo.findAllByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit + 1)), limit, Task::getId);
+        logger.debug("Tasks after (@{}): {}", after, tasks.getItems().size());
         return tasks;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTasks(final Integer user_id, final Task.Status status, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Task> tasks = user_id != null ? taskRepo.streamByUserId(user_id, status)
+                                                  : taskRepo.streamAll(status);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // leave closing out to the caller and separate Tasks with newlines rather than spaces
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                objectMapper.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    // stop already written Tasks from building up in the persistence context
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        }
+        logger.info("Exported {} Tasks (User: {}, Status: {})", count, user_id, status);
+        return count;
+    }
+
     @Override
     public List<Task> getAllTasks() {
         List<Task> tasks = taskRepo.findAll();
-        logger.debug("All Tasks: " + tasks);
+        logger.debug("All Tasks: {}", tasks.size());
         return tasks;
     }
 
@@ -126,32 +383,267 @@ public class TaskServiceImpl implements TaskService {
     }
 
     /**
-     * Checks all Tasks once every 30 seconds to see if there are any that have a status of PENDING and a date_time
-     * that is after the current date and time. If such a Task is found it is printed to the console and its
-     * status is changed to DONE. Alternatively, ensure that all DONE Tasks that have a date_time that is before the
-     * current date and time have their status set to PENDING.
+     * Sets the status of each of the given Tasks that is still PENDING and due to DONE. Called by the due Task thread
+     * with the Tasks that have just become due, so only those Tasks are touched. Tasks in shards this node no longer
+     * owns are left to the node that owns them.
+     *
+     * @param dueIds - the ids of the Tasks that have become due
      */
-    @Scheduled(fixedRate=30000)
-    @Transactional
-    public void checkTasks() {
-        List<Task> tasks = getAllTasks();
+    public void checkTasks(List<Integer> dueIds) {
+        if (dueIds.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
         final LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status -> {
+            // lock the Tasks that are still PENDING and due, so that the UPDATE changes exactly these Tasks. A Task
+            // rescheduled since it was queued (here or on another node) is no longer due and is left alone
+            List<Task> pending = new ArrayList<>();
+            List<Integer> pendingIds = new ArrayList<>();
+            for (Task task : taskRepo.findAllByIdInAndStatusAndDueTimeLessThanEqual(dueIds, Task.Status.PENDING,
+                    now)) {
+                // the Tasks' User ids are needed to check their shard and to publish their events
+                if (shardLeases.owns(task.getUserId())) {
+                    pending.add(task);
+                    pendingIds.add(task.getId());
+                }
+            }
+            if (pendingIds.isEmpty()) {
+                return 0;
+            }
+            int changed = taskRepo.updateStatus(pendingIds, Task.Status.PENDING, Task.Status.DONE, now);
+            // counts, cache and events are all updated once the transaction commits
+            pending.forEach(t -> evictTask(t.getId(), t.getVersion()));
+            pending.forEach(t -> {
+                counters.changed(t.getUserId(), Task.Status.PENDING, Task.Status.DONE);
+                events.publish(t.getUserId(), t.getId(), Task.Status.DONE);
+            });
+            return changed;
+        });
+        checkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        checkScanned.increment(dueIds.size());
+        checkFlipped.increment(updated);
+        logger.info("Tasks completed: {} of {} due", updated, dueIds.size());
+        logger.debug("Due Tasks: {}", dueIds);
+    }
+
+    @Override
+    public List<Task> getTasksForUserBetween(final Integer user_id, final LocalDateTime from, final LocalDateTime to) {
+        List<Task> tasks = taskRepo.findAllByUserIdAndDueTimeBetween(user_id, from, to);
+        logger.info("Tasks for User (@{}) between {} and {}: {}", user_id, from, to, tasks.size());
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getTasksBetween(final LocalDateTime from, final LocalDateTime to) {
+        List<Task> tasks = taskRepo.findAllByDueTimeBetween(from, to);
+        logger.info("Tasks between {} and {}: {}", from, to, tasks.size());
+        return tasks;
+    }
 
-        for (Task task : tasks) {
-            String dateTimeString = task.getDateTime();
+    @Override
+    public List<Task> getTasksDueBy(final Task.Status status, final LocalDateTime time) {
+        List<Task> tasks = taskRepo.findAllByStatusAndDueTimeLessThanEqual(status, time);
+        logger.info("{} Tasks due by {}: {}", status, time, tasks.size());
+        return tasks;
+    }
 
-            LocalDateTime taskTime = LocalDateTime.parse(dateTimeString,
-                    DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+    /**
+     * Periodically reconciles the status of all Tasks with their date_time, in case any were missed by the due queue
+     * (e.g. changed directly in the database). Only runs if usertasker.task.reconcile-enabled is true.
+     */
+    @Scheduled(fixedRateString = "${usertasker.task.reconcile-rate:300000}",
+               initialDelayString = "${usertasker.task.reconcile-rate:300000}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            long start = System.currentTimeMillis();
+            if (lastReconcileStart > 0) {
+                reconcileLag.record(Math.max(0, start - lastReconcileStart - reconcileRate), TimeUnit.MILLISECONDS);
+            }
+            lastReconcileStart = start;
+            reconcileStatuses();
+        }
+    }
 
-            if (now.compareTo(taskTime) >= 0) {
-                if (task.getStatus() == Task.Status.PENDING) {
-                    task.setStatus(Task.Status.DONE);
-                    logger.info("Task completed: " + task);
-                }
-            } else if (task.getStatus() != Task.Status.PENDING) {
-                task.setStatus(Task.Status.PENDING);
-                logger.info("Updated unfinished Task to PENDING: " + task);
+    /**
+     * Puts the PENDING Tasks of the shards this node owns that become due before the next run onto the due queue.
+     * Tasks added on this node are queued straight away, this picks up Tasks added on other nodes, Tasks of shards
+     * this node has just claimed, and Tasks due far enough ahead to have been left out of the queue. Only runs if
+     * usertasker.task.due-enabled is true.
+     */
+    @Scheduled(fixedRateString = "${usertasker.task.lookahead-rate:5000}",
+               initialDelayString = "${usertasker.task.lookahead-rate:5000}")
+    public void enqueueDueTasks() {
+        Set<Integer> owned = shardLeases.getOwnedShards();
+        if (!dueEnabled || owned.isEmpty()) {
+            return;
+        }
+        LocalDateTime horizon = LocalDateTime.now().plus(2 * lookaheadRate, ChronoUnit.MILLIS);
+        List<Task> due = taskRepo.findAllByStatusAndDueTimeLessThanEqualInShards(Task.Status.PENDING, horizon,
+                shardLeases.getShardCount(), owned);
+        due.forEach(task -> dueQueue.schedule(task.getId(), task.getDueTime()));
+        logger.debug("Queued {} PENDING Tasks due by {}", due.size(), horizon);
+    }
+
+    @Override
+    public ReconciliationResult reconcileStatuses() {
+        final LocalDateTime now = LocalDateTime.now();
+        final PageRequest chunk = PageRequest.of(0, reconcileChunkSize);
+        final long start = System.nanoTime();
+        final int shards = shardLeases.getShardCount();
+        final Set<Integer> owned = shardLeases.getOwnedShards();
+        int completed = 0;
+        int reopened = 0;
+        if (owned.isEmpty()) {
+            logger.info("No Task statuses to reconcile, no shards are owned");
+            return new ReconciliationResult(completed, reopened);
+        }
+
+        // keyset pagination over ids so each chunk's UPDATEs only lock a bounded range of rows
+        Integer after = 0;
+        List<Integer> ids;
+        while (!(ids = taskRepo.findIdsAfter(after, chunk)).isEmpty()) {
+            Integer last = ids.get(ids.size() - 1);
+            reconcileScanned.increment(ids.size());
+
+            // due Tasks are selected first so that their Users can be sent the DONE events
+            List<Task> due = taskRepo.findAllByStatusAndDueTimeLessThanEqualInRange(Task.Status.PENDING, now, after,
+                    last, shards, owned);
+            if (!due.isEmpty()) {
+                completed += taskRepo.updateStatusDueAtOrBefore(Task.Status.PENDING, Task.Status.DONE, now, after,
+                        last, shards, owned);
+                due.forEach(task -> {
+                    taskCache.evict(task.getId(), task.getVersion());
+                    events.publish(task.getUserId(), task.getId(), Task.Status.DONE);
+                });
+            }
+
+            // unfinished Tasks must be put back on the due queue as well as set to PENDING
+            List<Task> unfinished = taskRepo.findAllByStatusAndDueTimeAfterInRange(Task.Status.DONE, now, after, last,
+                    shards, owned);
+            if (!unfinished.isEmpty()) {
+                reopened += taskRepo.updateStatusDueAfter(Task.Status.DONE, Task.Status.PENDING, now, after, last,
+                        shards, owned);
+                unfinished.forEach(task -> {
+                    taskCache.evict(task.getId(), task.getVersion());
+                    dueQueue.schedule(task.getId(), task.getDueTime());
+                    events.publish(task.getUserId(), task.getId(), Task.Status.PENDING);
+                });
+            }
+            after = last;
+        }
+
+        if (completed > 0 || reopened > 0) {
+            // Tasks changed between being selected and updated aren't known, so all cached Tasks and counts could be
+            // out of date
+            taskCache.clear();
+            counters.clear();
+        }
+        reconcileTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        reconcileCompleted.increment(completed);
+        reconcileReopened.increment(reopened);
+        ReconciliationResult result = new ReconciliationResult(completed, reopened);
+        logger.info("Reconciled Task statuses: {}", result);
+        return result;
+    }
+
+    /**
+     * Claims this node's shards and reconciles the status of their Tasks (if usertasker.task.reconcile-enabled is
+     * true), then fills the due queue with the PENDING Tasks that are about to become due and starts the thread that
+     * updates Tasks as they become due (if usertasker.task.due-enabled is true)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDueTaskThread() {
+        shardLeases.start();
+        dueQueue.clear();
+        if (reconcileEnabled) {
+            reconcileStatuses();
+        }
+        if (!dueEnabled) {
+            return;
+        }
+        enqueueDueTasks();
+
+        dueTaskThread = new Thread(this::runDueTasks, "task-due-scheduler");
+        dueTaskThread.setDaemon(true);
+        dueTaskThread.start();
+    }
+
+    @PostConstruct
+    public void initCache() {
+        taskCache = caches.tasks();
+    }
+
+    @PostConstruct
+    public void initMetrics() {
+        checkTimer = Timer.builder("tasks.check")
+                .description("Duration of checkTasks runs").register(meterRegistry);
+        checkScanned = Counter.builder("tasks.check.scanned")
+                .description("Tasks looked at by checkTasks").register(meterRegistry);
+        checkFlipped = Counter.builder("tasks.check.flipped")
+                .description("Tasks changed from PENDING to DONE by checkTasks").register(meterRegistry);
+        reconcileTimer = Timer.builder("tasks.reconcile")
+                .description("Duration of status reconciliation runs").register(meterRegistry);
+        reconcileLag = Timer.builder("tasks.reconcile.lag")
+                .description("How late periodic status reconciliation runs start compared to their schedule")
+                .register(meterRegistry);
+        reconcileScanned = Counter.builder("tasks.reconcile.scanned")
+                .description("Tasks looked at by status reconciliation").register(meterRegistry);
+        reconcileCompleted = Counter.builder("tasks.reconcile.flipped").tag("to", Task.Status.DONE.name())
+                .description("Tasks changed by status reconciliation").register(meterRegistry);
+        reconcileReopened = Counter.builder("tasks.reconcile.flipped").tag("to", Task.Status.PENDING.name())
+                .description("Tasks changed by status reconciliation").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stopDueTaskThread() {
+        if (dueTaskThread != null) {
+            dueTaskThread.interrupt();
+        }
+    }
+
+    private void runDueTasks() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Integer> dueIds;
+            try {
+                dueIds = dueQueue.takeDue();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
             }
+            try {
+                checkTasks(dueIds);
+            } catch (RuntimeException re) {
+                // try again shortly rather than losing the Tasks
+                logger.error("Could not complete {} Tasks, retrying in {}s", dueIds.size(), RETRY_DELAY_SECONDS, re);
+                LocalDateTime retryTime = LocalDateTime.now().plusSeconds(RETRY_DELAY_SECONDS);
+                dueIds.forEach(id -> dueQueue.schedule(id, retryTime));
+            }
+        }
+    }
+
+    // removes a Task that is being changed from {version} (or deleted, if null) from the cache, and again once the
+    // current transaction (if any) commits, so that it can't be cached with its old values in the meantime or by a
+    // read that loaded them before the transaction committed
+    private void evictTask(Integer id, Long version) {
+        taskCache.evict(id, version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    taskCache.evict(id, version);
+                }
+            });
+        }
+    }
+
+    // adds a PENDING Task to the due queue, or removes a Task that is no longer PENDING
+    private void schedule(Task task, LocalDateTime taskTime) {
+        // Tasks of other nodes' shards are queued by those nodes
+        if (task.getStatus() == Task.Status.PENDING && shardLeases.owns(task.getUserId())) {
+            dueQueue.schedule(task.getId(), taskTime);
+        } else {
+            dueQueue.cancel(task.getId());
         }
     }
 }
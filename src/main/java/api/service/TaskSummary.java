@@ -0,0 +1,34 @@
+package api.service;
+
+import api.entity.Task;
+
+/**
+ * The number of a User's {@link Task}s with each Status
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class TaskSummary {
+
+    private final long pending;
+    private final long done;
+
+    public TaskSummary(long pending, long done) {
+        this.pending = pending;
+        this.done = done;
+    }
+
+    // number of PENDING Tasks
+    public long getPending() { return pending; }
+
+    // number of DONE Tasks
+    public long getDone() { return done; }
+
+    // number of Tasks
+    public long getTotal() { return pending + done; }
+
+    @Override
+    public String toString() {
+        return String.format("TaskSummary { pending = %d , done = %d }", pending, done);
+    }
+}
@@ -2,6 +2,7 @@ package api.service;
 
 
 import api.entity.User;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +21,14 @@ public interface UserService {
      */
     List<User> getAllUsers();
 
+    /**
+     * Retrieves a page of Users, ordered by id
+     * @param after - only Users with an id greater than this are returned
+     * @param limit - the maximum number of Users to return
+     * @return CursorPage containing the Users and the cursor for the next page
+     */
+    CursorPage<User> getUsers(Integer after, int limit);
+
     /**
      * Adds a User
      * @param user - the User to add
@@ -27,6 +36,13 @@ public interface UserService {
      */
     User addUser(User user);
 
+    /**
+     * Retrieves a list of Users with one query
+     * @param ids - the ids of the Users
+     * @return MultiGetResult containing the Users in the order of ids, and the ids of the Users that don't exist
+     */
+    MultiGetResult<User> getUsers(List<Integer> ids);
+
     /**
      * Retrieves a User by its id
      * @param id - the id of the User to retrieve
@@ -38,9 +54,11 @@ public interface UserService {
      * Updates a User with the values in newUser
      * @param id - the id of the User to update
      * @param newUser - User containing the values to update the User with
+     * @param version - the version the User must have to be updated, or null to update any version
      * @return Optional containing the updated User if successful, Optional.empty() otherwise
+     * @throws OptimisticLockingFailureException if the User does not have the version or was changed concurrently
      */
-    Optional<User> updateUser(Integer id, User newUser);
+    Optional<User> updateUser(Integer id, User newUser, Long version) throws OptimisticLockingFailureException;
 
     /**
      * Used to check if a User with the give user_id exists
@@ -5,8 +5,14 @@ import api.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
 
 import java.util.List;
 import java.util.Objects;
@@ -24,12 +30,37 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepo;
 
+    @Autowired
+    private KnownIds knownIds;
+
+    @Autowired
+    private EntityCaches caches;
+
+    // cache of Users by id
+    private VersionedCache<User> userCache;
+
     private Logger logger = LoggerFactory.getLogger("UserService");
 
     @Override
     public List<User> getAllUsers() {
         List<User> users = userRepo.findAll();
-        logger.info("All Users: " + users);
+        logger.info("All Users: {}", users.size());
+        return users;
+    }
+
+    @Override
+    public CursorPage<User> getUsers(final Integer after, final int limit) {
+        // fetch one extra User to find out if there is a next page
+        CursorPage<User> users = CursorPage.of(
+                userRepo.findAllByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit + 1)), limit, User::getId);
+        logger.info("Users after (@{}): {}", after, users.getItems().size());
+        return users;
+    }
+
+    @Override
+    public MultiGetResult<User> getUsers(final List<Integer> ids) {
+        MultiGetResult<User> users = MultiGetResult.of(ids, userRepo.findAllById(ids), User::getId);
+        logger.info("Retrieved {} of {} Users", users.getItems().size(), ids.size());
         return users;
     }
 
@@ -37,26 +68,38 @@ public class UserServiceImpl implements UserService {
     public User addUser(User user) {
         Objects.requireNonNull(user);
         userRepo.save(user);
-        logger.info("Created User: " + user);
+        knownIds.userAdded(user.getId());
+        logger.info("Created User: {}", user);
         return user;
     }
 
     @Override
     public Optional<User> getUserById(final Integer id) {
+        User cached = userCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         Optional<User> user = userRepo.findById(id);
-        user.ifPresent(u -> logger.info("Returned User: " + u));
+        user.ifPresent(u -> {
+            userCache.put(id, u);
+            logger.info("Returned User: {}", u);
+        });
         return user;
     }
 
     @Override
     @Transactional
-    public Optional<User> updateUser(final Integer id, User newUser) {
+    public Optional<User> updateUser(final Integer id, User newUser, final Long version) {
         Optional<User> currentUser = userRepo.findById(id);
         if (currentUser.isPresent()) {
             User user = currentUser.get();
-            logger.info("Updating User: " + user);
+            if (version != null && !version.equals(user.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(User.class, id);
+            }
+            evictUser(id, user.getVersion());
+            logger.info("Updating User: {}", user);
             user.updateWith(newUser);
-            logger.info("-> " + user);
+            logger.info("-> {}", user);
             return currentUser;
         } else {
             return Optional.empty();
@@ -65,6 +108,34 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean userExists(final Integer user_id) {
-        return userRepo.existsById(user_id);
+        // Users can't be deleted so only ids that aren't known yet (e.g. added by another node) need a query
+        if (knownIds.containsUser(user_id)) {
+            return true;
+        }
+        if (userRepo.existsById(user_id)) {
+            knownIds.userAdded(user_id);
+            return true;
+        }
+        return false;
+    }
+
+    @PostConstruct
+    public void initCache() {
+        userCache = caches.users();
+    }
+
+    // removes a User that is being changed from {version} from the cache, and again once the current transaction (if
+    // any) commits, so that it can't be cached with its old values in the meantime or by a read that loaded them
+    // before the transaction committed
+    private void evictUser(Integer id, Long version) {
+        userCache.evict(id, version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    userCache.evict(id, version);
+                }
+            });
+        }
     }
 }
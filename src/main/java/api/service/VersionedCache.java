@@ -0,0 +1,90 @@
+package api.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A cache of entities by id that only caches an entity if its version is not lower than the version it was last
+ * changed from. A read that loaded an entity before a change committed can otherwise put the old entity back in the
+ * cache after the change evicted it, where it would stay until it expires.
+ *
+ * Each eviction keeps the lowest version that may be cached for the id for a minute, much longer than any read takes.
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+class VersionedCache<T> {
+
+    private static final long FLOOR_RETENTION_SECONDS = 60;
+
+    private final Cache cache;
+    private final Class<T> type;
+    private final Function<T, Long> version;
+
+    // lowest version that may be cached by id, for recently evicted ids
+    private final ConcurrentMap<Integer, Long> floors = Caffeine.newBuilder()
+            .expireAfterWrite(FLOOR_RETENTION_SECONDS, TimeUnit.SECONDS)
+            .<Integer, Long>build().asMap();
+
+    /**
+     * @param cache - the cache of entities by id
+     * @param type - the type of the entities
+     * @param version - gives the version of an entity
+     */
+    VersionedCache(Cache cache, Class<T> type, Function<T, Long> version) {
+        this.cache = cache;
+        this.type = type;
+        this.version = version;
+    }
+
+    /**
+     * @param id - the id of the entity
+     * @return the cached entity, or null if it isn't cached
+     */
+    T get(Integer id) {
+        return cache.get(id, type);
+    }
+
+    /**
+     * Caches a loaded entity, unless it has changed since it was loaded
+     *
+     * @param id - the id of the entity
+     * @param entity - the entity
+     */
+    void put(Integer id, T entity) {
+        // computed so that an eviction can't happen between checking the floor and caching the entity
+        floors.compute(id, (i, floor) -> {
+            if (floor == null || version.apply(entity) >= floor) {
+                cache.put(id, entity);
+            }
+            return floor;
+        });
+    }
+
+    /**
+     * Removes an entity that is being changed or deleted from the cache, and stops it being cached again with the
+     * version it had before
+     *
+     * @param id - the id of the entity
+     * @param changedVersion - the version of the entity before it was changed, or null if it isn't known or the entity
+     *                         was deleted, in which case it isn't cached again until the eviction is forgotten
+     */
+    void evict(Integer id, Long changedVersion) {
+        long floor = changedVersion != null ? changedVersion + 1 : Long.MAX_VALUE;
+        floors.compute(id, (i, previous) -> {
+            cache.evict(id);
+            return previous != null ? Math.max(previous, floor) : floor;
+        });
+    }
+
+    /**
+     * Removes every entity from the cache
+     */
+    void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,72 @@
+package db.migration;
+
+import api.entity.Task;
+import api.entity.User;
+import org.flywaydb.core.api.migration.spring.SpringJdbcMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Migrates databases created by earlier versions of the application:
+ * <ul>
+ *     <li>{@link Task} rows created before date_time was stored as a timestamp have the legacy date_time string
+ *     column copied into the due_time timestamp column, which is then dropped.</li>
+ *     <li>The {@link Task} and {@link User} id sequences are moved past any ids allocated by the old "increment"
+ *     generator.</li>
+ * </ul>
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class V2__Migrate_legacy_data implements SpringJdbcMigration {
+
+    // must match the allocationSize of the id sequence generators
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private Logger logger = LoggerFactory.getLogger("TaskService");
+
+    @Override
+    public void migrate(JdbcTemplate jdbcTemplate) {
+        migrateDateTime(jdbcTemplate);
+        migrateSequence(jdbcTemplate, "TASK", "TASK_SEQ");
+        migrateSequence(jdbcTemplate, "USER", "USER_SEQ");
+    }
+
+    private void migrateDateTime(JdbcTemplate jdbcTemplate) {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'TASK' AND COLUMN_NAME = 'DATE_TIME'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        // only rows in the yyyy-MM-dd HH:mm:ss format can be parsed
+        int migrated = jdbcTemplate.update(
+                "UPDATE task SET due_time = PARSEDATETIME(date_time, 'yyyy-MM-dd HH:mm:ss') " +
+                "WHERE due_time IS NULL AND date_time REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2}$'");
+        Integer unmigrated = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE due_time IS NULL", Integer.class);
+        jdbcTemplate.execute("ALTER TABLE task DROP COLUMN date_time");
+
+        logger.info("Migrated date_time of {} Tasks to due_time", migrated);
+        if (unmigrated != null && unmigrated > 0) {
+            logger.warn("{} Tasks have no valid date_time and were not migrated", unmigrated);
+        }
+    }
+
+    private void migrateSequence(JdbcTemplate jdbcTemplate, String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long currentValue = jdbcTemplate.queryForObject(
+                "SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES " +
+                "WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = ?", Long.class, sequence);
+
+        // the pooled optimizer hands out the ID_ALLOCATION_SIZE ids up to and including each sequence value, so the
+        // sequence only needs moving if it has not yet passed the ids allocated by the old generator
+        if (maxId != null && maxId > 0 && currentValue != null && currentValue <= maxId) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ID_ALLOCATION_SIZE));
+            logger.info("Moved {} past existing id {}", sequence, maxId);
+        }
+    }
+}
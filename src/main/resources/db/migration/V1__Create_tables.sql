@@ -0,0 +1,25 @@
+-- Users and Tasks, as previously created by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS so that databases created before migrations were introduced are brought up to date in place.
+
+CREATE SEQUENCE IF NOT EXISTS user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS task_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS user (
+    id INTEGER NOT NULL PRIMARY KEY,
+    username VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS task (
+    id INTEGER NOT NULL PRIMARY KEY,
+    user_id INTEGER,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    due_time TIMESTAMP,
+    status VARCHAR(255)
+);
+
+-- Tasks created before date_time was stored as a timestamp only have the legacy date_time string column,
+-- which V2 copies into due_time
+ALTER TABLE task ADD COLUMN IF NOT EXISTS due_time TIMESTAMP;
@@ -0,0 +1,11 @@
+-- GET /api/user/{user_id}/task pages a User's Tasks in id order
+CREATE INDEX IF NOT EXISTS idx_task_user_id_id ON task (user_id, id);
+
+-- a User's Tasks due in a date_time range
+CREATE INDEX IF NOT EXISTS idx_task_user_id_due_time ON task (user_id, due_time);
+
+-- PENDING/DONE Tasks due before or after a date_time (startup scheduling and status reconciliation)
+CREATE INDEX IF NOT EXISTS idx_task_status_due_time ON task (status, due_time);
+
+-- all Tasks due in a date_time range
+CREATE INDEX IF NOT EXISTS idx_task_due_time ON task (due_time);
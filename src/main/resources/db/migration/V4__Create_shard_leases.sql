@@ -0,0 +1,13 @@
+-- Nodes of a cluster sharing the database, each kept alive by a heartbeat
+CREATE TABLE IF NOT EXISTS cluster_node (
+    node_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Tasks are split into shards by MOD(user_id, shards), the node owning a shard's lease is the only node that
+-- updates the status of its Tasks. Rows are created by the first node to start
+CREATE TABLE IF NOT EXISTS task_shard_lease (
+    shard INTEGER NOT NULL PRIMARY KEY,
+    owner VARCHAR(255),
+    expires_at TIMESTAMP
+);
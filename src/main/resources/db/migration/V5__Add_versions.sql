@@ -0,0 +1,3 @@
+-- optimistic locking versions, also used as the ETags of Users and Tasks
+ALTER TABLE user ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE task ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,15 @@
+-- DONE Tasks moved out of task once they are old enough (see TaskArchiver), keeping their ids so that they can still
+-- be read with include_archived. archived_time is when the Task was moved
+CREATE TABLE IF NOT EXISTS task_archive (
+    id INTEGER NOT NULL PRIMARY KEY,
+    user_id INTEGER,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    due_time TIMESTAMP,
+    status VARCHAR(255),
+    version BIGINT DEFAULT 0 NOT NULL,
+    archived_time TIMESTAMP NOT NULL
+);
+
+-- GET /api/user/{user_id}/task?include_archived=true pages a User's archived Tasks in id order
+CREATE INDEX IF NOT EXISTS idx_task_archive_user_id_id ON task_archive (user_id, id);
@@ -0,0 +1,79 @@
+package api.controller;
+
+import api.entity.User;
+import api.service.UserService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that with usertasker.async.enabled false the completed CompletableFutures returned by the controllers are
+ * written without starting async request processing
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CompletedFutureReturnValueHandlerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void completedResultIsWrittenWithoutAsyncDispatch() throws Exception {
+        User user = new User();
+        user.setUsername("sync");
+        Integer id = userService.addUser(user).getId();
+
+        mockMvc.perform(get("/api/user/" + id))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.username").value("sync"));
+    }
+
+    @Test
+    public void completedErrorResponseIsWrittenWithoutAsyncDispatch() throws Exception {
+        mockMvc.perform(get("/api/user/" + Integer.MAX_VALUE))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void failedFutureThrowsItsException() {
+        HandlerMethodReturnValueHandler asyncHandler = mock(HandlerMethodReturnValueHandler.class);
+        CompletedFutureReturnValueHandler handler =
+                new CompletedFutureReturnValueHandler(asyncHandler, Collections.emptyList());
+        IllegalStateException failure = new IllegalStateException("failed");
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(failure);
+
+        assertThatThrownBy(() -> handler.handleReturnValue(future, null, null, null)).isSameAs(failure);
+        verifyZeroInteractions(asyncHandler);
+    }
+}
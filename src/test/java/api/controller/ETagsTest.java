@@ -0,0 +1,45 @@
+package api.controller;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests that the weak ETags sent for Users, Tasks and listings are matched by If-None-Match and give their version back
+ * from If-Match
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class ETagsTest {
+
+    @Test
+    public void etagsAreWeak() {
+        assertThat(ETags.weak(3L)).isEqualTo("W/\"3\"");
+    }
+
+    @Test
+    public void ifNoneMatchMatchesWeakAndStrongETags() {
+        assertThat(ETags.matches("W/\"3\"", ETags.weak(3L))).isTrue();
+        assertThat(ETags.matches("\"2\", \"3\"", ETags.weak(3L))).isTrue();
+        assertThat(ETags.matches("*", ETags.weak(3L))).isTrue();
+        assertThat(ETags.matches("W/\"2\"", ETags.weak(3L))).isFalse();
+        assertThat(ETags.matches(null, ETags.weak(3L))).isFalse();
+    }
+
+    @Test
+    public void ifMatchGivesTheVersionOfWeakAndStrongETags() {
+        assertThat(ETags.versionOf(ETags.weak(3L))).isEqualTo(3L);
+        assertThat(ETags.versionOf(" \"3\" ")).isEqualTo(3L);
+        assertThat(ETags.versionOf("*")).isNull();
+        assertThat(ETags.versionOf(null)).isNull();
+    }
+
+    @Test
+    public void ifMatchRejectsOtherValues() {
+        assertThatThrownBy(() -> ETags.versionOf("3")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> ETags.versionOf("W/\"3-json\"")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> ETags.versionOf("\"2\", \"3\"")).isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package api.controller;
+
+import api.entity.User;
+import api.service.UserService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that batches of Tasks larger than usertasker.task.max-batch-size are rejected
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "usertasker.task.max-batch-size=2")
+public class TaskBatchLimitTest {
+
+    private static final String TASK = "{\"name\":\"task\",\"description\":\"batch\"," +
+                                       "\"date_time\":\"2030-01-01 00:00:00\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void createsBatchUpToMaxBatchSize() throws Exception {
+        assertThat(postBatch(userId(), "[" + TASK + "," + TASK + "]").getResponseCode()).isEqualTo(201);
+    }
+
+    @Test
+    public void rejectsBatchOverMaxBatchSize() throws Exception {
+        HttpURLConnection connection = postBatch(userId(), "[" + TASK + "," + TASK + "," + TASK + "]");
+
+        assertThat(connection.getResponseCode()).isEqualTo(400);
+    }
+
+    private Integer userId() {
+        User user = new User();
+        user.setUsername("batch");
+        return userService.addUser(user).getId();
+    }
+
+    private HttpURLConnection postBatch(Integer user_id, String body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/api/user/" + user_id + "/task/batch").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, "application/json");
+        connection.setRequestProperty(HttpHeaders.ACCEPT, "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,94 @@
+package api.controller;
+
+import api.entity.Task;
+import api.entity.User;
+import api.service.TaskService;
+import api.service.UserService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that pages of Tasks are gzipped by Tomcat and carry a weak ETag that varies by Accept
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class TaskListCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    public void taskPageIsGzipped() throws Exception {
+        User user = new User();
+        user.setUsername("gzip");
+        Integer user_id = userService.addUser(user).getId();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = new Task();
+            task.setName("task " + i);
+            task.setDescription("a Task long enough for the page to be worth compressing");
+            task.setDateTime(LocalDateTime.now().plusDays(1).format(Task.DATE_TIME_FORMAT));
+            tasks.add(task);
+        }
+        taskService.addTasks(user_id, tasks);
+
+        HttpURLConnection connection = get("/api/user/" + user_id + "/task?limit=100", null);
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getHeaderField(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(connection.getHeaderField(HttpHeaders.VARY)).containsIgnoringCase(HttpHeaders.ACCEPT);
+        String etag = connection.getHeaderField(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+        try (InputStream body = new GZIPInputStream(connection.getInputStream())) {
+            assertThat(new String(readAll(body), "UTF-8")).contains("task 99");
+        }
+
+        assertThat(get("/api/user/" + user_id + "/task?limit=100", etag).getResponseCode()).isEqualTo(304);
+    }
+
+    private HttpURLConnection get(String path, String ifNoneMatch) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, "application/json");
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return connection;
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,128 @@
+package api.repository;
+
+import api.entity.Task;
+import api.service.TaskService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the database runs on MVStore with MVCC, so reads don't wait for writes and writes only wait for writes
+ * to the same rows
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class H2ConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int TASKS_PER_WRITER = 50;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void databaseUsesMvStoreWithMvcc() {
+        assertThat(setting("MV_STORE")).isEqualToIgnoringCase("TRUE");
+        assertThat(setting("MVCC")).isEqualToIgnoringCase("TRUE");
+    }
+
+    @Test
+    public void uncommittedWriteOnlyBlocksWritesToTheSameRow() throws Exception {
+        Integer locked = taskService.addTask(2000, newTask()).getId();
+        Integer other = taskService.addTask(2000, newTask()).getId();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement update = connection.createStatement()) {
+                update.executeUpdate("UPDATE task SET name = 'locked' WHERE id = " + locked);
+            }
+
+            // the lock timeout is 10s so any of these waiting on the lock would time out
+            CompletableFuture.runAsync(() -> {
+                assertThat(taskService.getTaskInfo(2000, locked, false)).isPresent();
+                jdbcTemplate.update("UPDATE task SET name = 'other' WHERE id = ?", other);
+            }).get(5, TimeUnit.SECONDS);
+
+            CompletableFuture<Integer> sameRow = CompletableFuture.supplyAsync(
+                    () -> jdbcTemplate.update("UPDATE task SET name = 'same' WHERE id = ?", locked));
+            Thread.sleep(200);
+            assertThat(sameRow).isNotDone();
+            connection.commit();
+            assertThat(sameRow.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void concurrentReadsAndWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        try {
+            List<CompletableFuture<?>> work = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int user_id = 3000 + w;
+                work.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                        taskService.addTask(user_id, newTask());
+                    }
+                }, executor));
+            }
+            for (int r = 0; r < READERS; r++) {
+                int user_id = 3000 + r % WRITERS;
+                work.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                        assertThat(taskService.getTasksForUser(user_id, 0, 20, false).getItems().size())
+                                .isLessThanOrEqualTo(20);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(work.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int w = 0; w < WRITERS; w++) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE user_id = ?", Integer.class,
+                    3000 + w)).isEqualTo(TASKS_PER_WRITER);
+        }
+    }
+
+    private String setting(String name) {
+        return jdbcTemplate.queryForObject("SELECT value FROM information_schema.settings WHERE name = ?",
+                String.class, name);
+    }
+
+    private static Task newTask() {
+        Task task = new Task();
+        task.setName("task");
+        task.setDescription("concurrency test");
+        task.setDateTime(LocalDateTime.now().plusDays(1).format(Task.DATE_TIME_FORMAT));
+        return task;
+    }
+}
@@ -0,0 +1,119 @@
+package api.repository;
+
+import api.entity.Task;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the Task queries are planned with the idx_task_* indexes created by the Flyway migrations rather than
+ * scanning the task table or its primary key
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class TaskIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TaskRepository taskRepo;
+
+    @Before
+    public void populate() {
+        // the planner can't tell the indexes apart without rows to cost them with
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE id > 5000000", Integer.class) == 0) {
+            jdbcTemplate.update("INSERT INTO task (id, user_id, name, description, due_time, status) " +
+                                "SELECT 5000000 + x, MOD(x, 50), 'task', 'index test', " +
+                                "DATEADD('MINUTE', x, TIMESTAMP '2018-01-01 00:00:00'), " +
+                                "CASEWHEN(MOD(x, 10) = 0, 'PENDING', 'DONE') FROM SYSTEM_RANGE(1, 10000)");
+            jdbcTemplate.execute("ANALYZE");
+        }
+    }
+
+    @Test
+    public void userTaskPageUsesUserIdIdIndex() {
+        assertThat(explain(nativeQuery("findByUserIdAfter")))
+                .contains("IDX_TASK_USER_ID_ID: USER_ID = 1")
+                .contains("ID > 0");
+    }
+
+    @Test
+    public void userArchivedTaskPageUsesArchiveUserIdIdIndex() {
+        assertThat(explain(nativeQuery("findArchivedByUserIdAfter")))
+                .contains("IDX_TASK_ARCHIVE_USER_ID_ID: USER_ID = 1")
+                .contains("ID > 0");
+    }
+
+    @Test
+    public void userTaskExportUsesUserIdIdIndex() {
+        // SQL of streamByUserId, for Tasks with any Status
+        assertThat(explain("SELECT * FROM task WHERE user_id = 1 AND (CAST(NULL AS VARCHAR) IS NULL " +
+                           "OR status = CAST(NULL AS VARCHAR)) ORDER BY id"))
+                .contains("IDX_TASK_USER_ID_ID: USER_ID = 1");
+    }
+
+    @Test
+    public void dueTaskLookAheadUsesStatusDueTimeIndex() {
+        // SQL of findAllByStatusAndDueTimeLessThanEqualInShards
+        assertThat(explain("SELECT * FROM task WHERE status = 'PENDING' " +
+                           "AND due_time <= TIMESTAMP '2018-01-02 00:00:00' AND MOD(user_id, 16) IN (0, 1)"))
+                .contains("IDX_TASK_STATUS_DUE_TIME: STATUS = 'PENDING'")
+                .contains("DUE_TIME <= TIMESTAMP '2018-01-02 00:00:00'");
+    }
+
+    @Test
+    public void dueBetweenUsesDueTimeIndex() {
+        // SQL of findAllByDueTimeBetween
+        assertThat(explain("SELECT * FROM task WHERE due_time BETWEEN TIMESTAMP '2018-01-02 00:00:00' " +
+                           "AND TIMESTAMP '2018-01-02 06:00:00'"))
+                .contains("IDX_TASK_DUE_TIME: DUE_TIME >= TIMESTAMP '2018-01-02 00:00:00'")
+                .contains("DUE_TIME <= TIMESTAMP '2018-01-02 06:00:00'");
+    }
+
+    @Test
+    public void userDueBetweenUsesUserIdDueTimeIndex() {
+        assertThat(explain(nativeQuery("findAllByUserIdAndDueTimeBetween")))
+                .contains("IDX_TASK_USER_ID_DUE_TIME: USER_ID = 1")
+                .contains("DUE_TIME >= TIMESTAMP '2018-01-02 00:00:00'");
+    }
+
+    @Test
+    public void userDueBetweenFindsTheUsersTasksInRange() {
+        // User 1's Tasks are due every 50 minutes from 00:01 on 1 January 2018
+        assertThat(taskRepo.findAllByUserIdAndDueTimeBetween(1, LocalDateTime.of(2018, 1, 2, 0, 0),
+                                                             LocalDateTime.of(2018, 1, 2, 6, 0)))
+                .filteredOn(task -> task.getId() > 5000000)
+                .extracting(Task::getId)
+                .containsExactlyInAnyOrder(5001451, 5001501, 5001551, 5001601, 5001651, 5001701, 5001751);
+    }
+
+    // returns the SQL of the native TaskRepository query {method}, for User 1 from the start and due in the first six
+    // hours of 2 January 2018
+    private static String nativeQuery(String method) {
+        Query query = Arrays.stream(TaskRepository.class.getMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst().orElseThrow(IllegalArgumentException::new)
+                .getAnnotation(Query.class);
+        return query.value().replace(":userId", "1").replace(":after", "0").replace(":limit", "20")
+                .replace(":from", "TIMESTAMP '2018-01-02 00:00:00'").replace(":to", "TIMESTAMP '2018-01-02 06:00:00'");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
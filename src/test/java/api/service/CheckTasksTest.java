@@ -0,0 +1,92 @@
+package api.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link TaskServiceImpl#checkTasks} only completes Tasks that are still due when they are updated
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class CheckTasksTest {
+
+    @Autowired
+    private TaskServiceImpl taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void completesDueTask() {
+        insertTask(1000001, LocalDateTime.now().minusMinutes(1));
+
+        taskService.checkTasks(Collections.singletonList(1000001));
+
+        assertThat(statusOf(1000001)).isEqualTo("DONE");
+    }
+
+    @Test
+    public void leavesTaskThatIsNotDue() {
+        insertTask(1000002, LocalDateTime.now().plusHours(1));
+
+        taskService.checkTasks(Collections.singletonList(1000002));
+
+        assertThat(statusOf(1000002)).isEqualTo("PENDING");
+    }
+
+    @Test
+    public void leavesTaskRescheduledWhileBeingChecked() throws Exception {
+        insertTask(1000003, LocalDateTime.now().minusMinutes(1));
+
+        try (Connection connection = dataSource.getConnection()) {
+            // reschedule the Task in a transaction that is still open when checkTasks runs
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE task SET due_time = ?, version = version + 1 WHERE id = ?")) {
+                update.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+                update.setInt(2, 1000003);
+                update.executeUpdate();
+            }
+            CompletableFuture<Void> check = CompletableFuture.runAsync(
+                    () -> taskService.checkTasks(Collections.singletonList(1000003)));
+            Thread.sleep(300);
+            assertThat(check).isNotDone();
+            connection.commit();
+            check.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(statusOf(1000003)).isEqualTo("PENDING");
+    }
+
+    private void insertTask(int id, LocalDateTime dueTime) {
+        jdbcTemplate.update("INSERT INTO task (id, user_id, name, description, due_time, status) " +
+                            "VALUES (?, 1, 'task', 'check task', ?, 'PENDING')", id, Timestamp.valueOf(dueTime));
+    }
+
+    private String statusOf(int id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM task WHERE id = ?", String.class, id);
+    }
+}
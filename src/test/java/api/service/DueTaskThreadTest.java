@@ -0,0 +1,60 @@
+package api.service;
+
+import api.entity.Task;
+import api.entity.User;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the due Task thread completes a Task when it becomes due, without waiting for a scan of every Task
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "usertasker.task.due-enabled=true")
+public class DueTaskThreadTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    public void completesTaskWhenItBecomesDue() throws Exception {
+        User user = new User();
+        user.setUsername("due");
+        Integer user_id = userService.addUser(user).getId();
+        LocalDateTime dueTime = LocalDateTime.now().plusSeconds(1);
+        Task task = new Task();
+        task.setName("task");
+        task.setDescription("due in a second");
+        task.setDateTime(dueTime.format(Task.DATE_TIME_FORMAT));
+        Integer id = taskService.addTask(user_id, task).getId();
+
+        assertThat(statusOf(user_id, id)).isEqualTo(Task.Status.PENDING);
+        // date_time has whole seconds, so the Task is due within a second of dueTime
+        long deadline = System.currentTimeMillis() + 5000;
+        while (statusOf(user_id, id) == Task.Status.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(statusOf(user_id, id)).isEqualTo(Task.Status.DONE);
+        assertThat(LocalDateTime.now()).isBefore(dueTime.plusSeconds(3));
+    }
+
+    private Task.Status statusOf(Integer user_id, Integer id) {
+        return taskService.getTaskInfo(user_id, id, false).get().getStatus();
+    }
+}
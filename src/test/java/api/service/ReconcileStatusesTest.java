@@ -0,0 +1,60 @@
+package api.service;
+
+import api.entity.Task;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests that {@link TaskServiceImpl#reconcileStatuses} sends an event for every Task whose status it changes
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class ReconcileStatusesTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private TaskEventPublisher events;
+
+    @Test
+    public void publishesChangedStatuses() {
+        insertTask(2000001, 7, LocalDateTime.now().minusMinutes(1), "PENDING");
+        insertTask(2000002, 7, LocalDateTime.now().plusHours(1), "DONE");
+
+        taskService.reconcileStatuses();
+
+        assertThat(statusOf(2000001)).isEqualTo("DONE");
+        assertThat(statusOf(2000002)).isEqualTo("PENDING");
+        verify(events).publish(7, 2000001, Task.Status.DONE);
+        verify(events).publish(7, 2000002, Task.Status.PENDING);
+    }
+
+    private void insertTask(int id, int userId, LocalDateTime dueTime, String status) {
+        jdbcTemplate.update("INSERT INTO task (id, user_id, name, description, due_time, status) " +
+                            "VALUES (?, ?, 'task', 'reconcile', ?, ?)", id, userId, Timestamp.valueOf(dueTime), status);
+    }
+
+    private String statusOf(int id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM task WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,72 @@
+package api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link TaskDueQueue} only hands out the current schedule of each Task
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class TaskDueQueueTest {
+
+    private TaskDueQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new TaskDueQueue(new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void rescheduledTaskIsOnlyQueuedOnce() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < 100; i++) {
+            queue.schedule(1, past.minusSeconds(i));
+        }
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.pollDue()).containsExactly(1);
+        assertThat(queue.pollDue()).isEmpty();
+    }
+
+    @Test
+    public void taskRescheduledLaterIsNotDue() {
+        queue.schedule(1, LocalDateTime.now().minusMinutes(1));
+        queue.schedule(1, LocalDateTime.now().plusHours(1));
+
+        assertThat(queue.pollDue()).isEmpty();
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void cancelledTaskIsRemoved() {
+        queue.schedule(1, LocalDateTime.now().minusMinutes(1));
+        queue.schedule(2, LocalDateTime.now().minusMinutes(1));
+        queue.cancel(1);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.pollDue()).containsExactly(2);
+    }
+
+    @Test(timeout = 5000)
+    public void takeDueWakesUpForEarlierTask() throws InterruptedException {
+        queue.schedule(1, LocalDateTime.now().plusHours(1));
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            queue.schedule(2, LocalDateTime.now());
+        }).start();
+
+        assertThat(queue.takeDue()).containsExactly(2);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,34 @@
+package api.service;
+
+import api.entity.Task;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the data sent for each kind of {@link TaskEvent}
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class TaskEventTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void statusEventHasTaskIdAndStatus() throws Exception {
+        TaskEvent event = new TaskEvent(1, 2, 3, Task.Status.DONE);
+
+        assertThat(event.getName()).isEqualTo(TaskEvent.STATUS);
+        assertThat(objectMapper.writeValueAsString(event)).isEqualTo("{\"status\":\"DONE\",\"task_id\":3}");
+    }
+
+    @Test
+    public void addedEventHasCountsOnly() throws Exception {
+        TaskEvent event = new TaskEvent(1, 2, new TaskSummary(700, 300));
+
+        assertThat(event.getName()).isEqualTo(TaskEvent.ADDED);
+        assertThat(objectMapper.writeValueAsString(event)).isEqualTo("{\"pending\":700,\"done\":300,\"total\":1000}");
+    }
+}
@@ -0,0 +1,67 @@
+package api.service;
+
+import api.entity.Task;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the per-User Task counts follow Tasks being deleted and moved between Users
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class TaskSummaryTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    public void deletedTaskIsNoLongerCounted() {
+        Integer id = taskService.addTask(4000, newTask(1)).getId();
+        taskService.addTask(4000, newTask(-1));
+        assertThat(taskService.getTaskSummary(4000).getPending()).isEqualTo(1);
+
+        assertThat(taskService.deleteTask(4000, id)).isTrue();
+
+        TaskSummary summary = taskService.getTaskSummary(4000);
+        assertThat(summary.getPending()).isEqualTo(0);
+        assertThat(summary.getDone()).isEqualTo(1);
+    }
+
+    @Test
+    public void movedTaskIsCountedForItsNewUser() {
+        Integer id = taskService.addTask(4001, newTask(1)).getId();
+        assertThat(taskService.getTaskSummary(4001).getPending()).isEqualTo(1);
+        assertThat(taskService.getTaskSummary(4002).getTotal()).isEqualTo(0);
+
+        Task move = new Task();
+        move.setUserId(4002);
+        move.setDateTime(LocalDateTime.now().minusDays(1).format(Task.DATE_TIME_FORMAT));
+        assertThat(taskService.updateTask(4001, id, move, null)).isPresent();
+
+        assertThat(taskService.getTaskSummary(4001).getTotal()).isEqualTo(0);
+        TaskSummary summary = taskService.getTaskSummary(4002);
+        assertThat(summary.getPending()).isEqualTo(0);
+        assertThat(summary.getDone()).isEqualTo(1);
+    }
+
+    // a Task due {days} days from now, already DONE if days is negative
+    private static Task newTask(int days) {
+        Task task = new Task();
+        task.setName("task");
+        task.setDescription("summary test");
+        task.setDateTime(LocalDateTime.now().plusDays(days).format(Task.DATE_TIME_FORMAT));
+        return task;
+    }
+}
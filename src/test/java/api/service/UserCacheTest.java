@@ -0,0 +1,77 @@
+package api.service;
+
+import api.entity.User;
+import api.repository.UserRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the cached copy of a {@link User} can't outlive an update of it
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private EntityCaches caches;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void userReadDuringUpdateIsNotCachedAfterCommit() {
+        User user = new User();
+        user.setUsername("before");
+        Integer id = userService.addUser(user).getId();
+
+        transactionTemplate.execute(status -> {
+            User newUser = new User();
+            newUser.setUsername("after");
+            userService.updateUser(id, newUser, null);
+            // another request reads and caches the committed User while the update is still in progress
+            User read = CompletableFuture.supplyAsync(() -> userService.getUserById(id).get()).join();
+            assertThat(read.getUsername()).isEqualTo("before");
+            return null;
+        });
+
+        assertThat(userService.getUserById(id).get().getUsername()).isEqualTo("after");
+    }
+
+    @Test
+    public void userLoadedBeforeUpdateCommitsIsNotCachedAfterIt() {
+        User user = new User();
+        user.setUsername("before");
+        Integer id = userService.addUser(user).getId();
+
+        User stale = transactionTemplate.execute(status -> {
+            User newUser = new User();
+            newUser.setUsername("after");
+            userService.updateUser(id, newUser, null);
+            // another request loads the committed User while the update is still in progress
+            return CompletableFuture.supplyAsync(() -> userRepo.findById(id).get()).join();
+        });
+        // and only caches it once the update has committed
+        caches.users().put(id, stale);
+
+        assertThat(userService.getUserById(id).get().getUsername()).isEqualTo("after");
+    }
+}
@@ -0,0 +1,52 @@
+package api.service;
+
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that a {@link VersionedCache} doesn't cache versions of an entity from before it was last changed
+ *
+ * @author Rylan Morrison
+ * @since 17 October 2026
+ */
+public class VersionedCacheTest {
+
+    // entities that are their own version
+    private final VersionedCache<Long> cache = new VersionedCache<>(new ConcurrentMapCache("test"), Long.class,
+            version -> version);
+
+    @Test
+    public void cachesEntityThatHasNotChanged() {
+        cache.put(1, 3L);
+
+        assertThat(cache.get(1)).isEqualTo(3L);
+    }
+
+    @Test
+    public void doesNotCacheVersionChangedFrom() {
+        cache.put(1, 3L);
+        cache.evict(1, 3L);
+        cache.put(1, 3L);
+
+        assertThat(cache.get(1)).isNull();
+    }
+
+    @Test
+    public void cachesVersionChangedTo() {
+        cache.evict(1, 3L);
+        cache.put(1, 4L);
+
+        assertThat(cache.get(1)).isEqualTo(4L);
+    }
+
+    @Test
+    public void doesNotCacheDeletedEntity() {
+        cache.put(1, 3L);
+        cache.evict(1, null);
+        cache.put(1, 3L);
+
+        assertThat(cache.get(1)).isNull();
+    }
+}